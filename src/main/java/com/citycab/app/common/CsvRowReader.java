@@ -0,0 +1,138 @@
+package com.citycab.app.common;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV incrémental (RFC 4180) : un enregistrement à la fois, mémoire constante.
+ * Gère les champs entre guillemets, les guillemets doublés et les retours à la ligne
+ * dans un champ. Les lignes vides sont ignorées.
+ */
+public class CsvRowReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final char separator;
+    private final StringBuilder field = new StringBuilder(64);
+    private int line = 1;
+    private int recordLine;
+    private boolean started;
+
+    public CsvRowReader(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvRowReader(Reader reader, char separator) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+        this.separator = separator;
+    }
+
+    /**
+     * Enregistrement suivant, ou null en fin de flux
+     */
+    public List<String> next() throws IOException {
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        boolean empty = true;
+        recordLine = line;
+
+        int c;
+        while ((c = read()) != -1) {
+            if (inQuotes) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == separator) {
+                values.add(value(quoted));
+                quoted = false;
+                empty = false;
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                inQuotes = true;
+                quoted = true;
+                empty = false;
+            } else if (c == '\r') {
+                // \r\n ou \r seul : fin d'enregistrement traitée au \n
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                line++;
+                if (empty && field.isEmpty()) {
+                    recordLine = line;
+                    continue;
+                }
+                values.add(value(quoted));
+                return values;
+            } else if (c == '\n') {
+                line++;
+                if (empty && field.isEmpty()) {
+                    recordLine = line;
+                    continue;
+                }
+                values.add(value(quoted));
+                return values;
+            } else {
+                field.append((char) c);
+                empty = false;
+            }
+        }
+
+        if (inQuotes) {
+            throw new IOException("Unterminated quoted field starting at line " + recordLine);
+        }
+        if (empty && field.isEmpty()) {
+            return null;
+        }
+        values.add(value(quoted));
+        return values;
+    }
+
+    /**
+     * Ligne du fichier où commence le dernier enregistrement lu (1 pour la première)
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            // BOM UTF-8 laissé par les exports Excel
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    private String value(boolean quoted) {
+        String value = field.toString();
+        field.setLength(0);
+        return quoted ? value : value.trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
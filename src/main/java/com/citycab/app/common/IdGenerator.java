@@ -0,0 +1,12 @@
+package com.citycab.app.common;
+
+/**
+ * Génère la partie unique d'un identifiant d'entité (le préfixe reste fourni par l'entité)
+ */
+public interface IdGenerator {
+
+    /**
+     * @param randomLength nombre de caractères aléatoires en fin d'identifiant
+     */
+    String nextId(int randomLength);
+}
@@ -0,0 +1,23 @@
+package com.citycab.app.common;
+
+/**
+ * Générateur d'identifiants utilisé par BaseEntity. Remplaçable (tests, autre stratégie)
+ * avant les premières insertions.
+ */
+public final class IdGenerators {
+
+    private IdGenerators() {}
+
+    private static volatile IdGenerator generator = new MonotonicIdGenerator();
+
+    public static IdGenerator get() {
+        return generator;
+    }
+
+    public static void set(IdGenerator idGenerator) {
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("IdGenerator cannot be null");
+        }
+        generator = idGenerator;
+    }
+}
@@ -6,6 +6,8 @@ import java.nio.file.Paths;
 import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -37,7 +39,13 @@ public class KeyUtils {
 
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s");
     private static final String RSA_ALGORITHM = "RSA";
-    //private static final String EC_ALGORITHM = "EC";
+    private static final String EC_ALGORITHM = "EC";
+    private static final String SEC1_EC_MARKER = "BEGIN EC PRIVATE KEY";
+
+    // OID DER id-ecPublicKey (1.2.840.10045.2.1)
+    private static final byte[] EC_PUBLIC_KEY_OID = {
+        0x06, 0x07, 0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x02, 0x01
+    };
 
     /**
      * Loads a private key from a PEM file in classpath resources
@@ -115,6 +123,130 @@ public class KeyUtils {
         return (RSAPublicKey) KeyFactory.getInstance(algorithm).generatePublic(keySpec);
     }
 
+    /**
+     * Loads an EC private key from an absolute file path.
+     * Accepts PKCS#8 ("BEGIN PRIVATE KEY") or SEC1 ("BEGIN EC PRIVATE KEY") with a named curve
+     */
+    public static ECPrivateKey loadEcPrivateKeyFromFile(final String filePath) throws Exception {
+        validatePath(filePath);
+        final String keyContent = readKeyFromFile(filePath);
+        final String cleanKey = cleanPemKey(keyContent, PRIVATE_KEY_MARKERS);
+        byte[] decoded = Base64.getDecoder().decode(cleanKey);
+        if (keyContent.contains(SEC1_EC_MARKER)) {
+            decoded = wrapSec1InPkcs8(decoded);
+        }
+        final PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(decoded);
+        return (ECPrivateKey) KeyFactory.getInstance(EC_ALGORITHM).generatePrivate(keySpec);
+    }
+
+    /**
+     * Loads an EC public key from an absolute file path
+     */
+    public static ECPublicKey loadEcPublicKeyFromFile(final String filePath) throws Exception {
+        validatePath(filePath);
+        final String keyContent = readKeyFromFile(filePath);
+        final String cleanKey = cleanPemKey(keyContent, PUBLIC_KEY_MARKERS);
+        final byte[] decoded = Base64.getDecoder().decode(cleanKey);
+        final X509EncodedKeySpec keySpec = new X509EncodedKeySpec(decoded);
+        return (ECPublicKey) KeyFactory.getInstance(EC_ALGORITHM).generatePublic(keySpec);
+    }
+
+    /**
+     * Wraps a SEC1 private key (openssl ecparam -name prime256v1 / secp384r1 / secp521r1) into PKCS#8.
+     * The curve OID is taken from the SEC1 parameters field, so the key keeps its own curve.
+     */
+    private static byte[] wrapSec1InPkcs8(final byte[] sec1) {
+        final byte[] curveOid = readSec1CurveOid(sec1);
+        final byte[] version = {0x02, 0x01, 0x00};
+        final byte[] algorithmIdentifier = derEncode((byte) 0x30, concat(EC_PUBLIC_KEY_OID, curveOid));
+        final byte[] privateKey = derEncode((byte) 0x04, sec1);
+        return derEncode((byte) 0x30, concat(version, concat(algorithmIdentifier, privateKey)));
+    }
+
+    /**
+     * Returns the namedCurve OID (tag and length included) of a SEC1 ECPrivateKey:
+     * SEQUENCE { INTEGER 1, OCTET STRING, [0] OBJECT IDENTIFIER OPTIONAL, [1] BIT STRING OPTIONAL }
+     */
+    private static byte[] readSec1CurveOid(final byte[] sec1) {
+        if (sec1.length < 2 || sec1[0] != 0x30) {
+            throw new IllegalArgumentException("Invalid SEC1 EC private key: expected a DER sequence");
+        }
+        int offset = contentOffset(sec1, 0);
+        final int end = offset + contentLength(sec1, 0);
+        while (offset < end) {
+            final int next = contentOffset(sec1, offset) + contentLength(sec1, offset);
+            if ((sec1[offset] & 0xFF) == 0xA0) {
+                final int oidOffset = contentOffset(sec1, offset);
+                if (sec1[oidOffset] != 0x06) {
+                    throw new IllegalArgumentException("SEC1 EC private key must use a named curve");
+                }
+                final int oidEnd = contentOffset(sec1, oidOffset) + contentLength(sec1, oidOffset);
+                final byte[] oid = new byte[oidEnd - oidOffset];
+                System.arraycopy(sec1, oidOffset, oid, 0, oid.length);
+                return oid;
+            }
+            offset = next;
+        }
+        throw new IllegalArgumentException(
+            "SEC1 EC private key has no curve parameters: convert it to PKCS#8 (openssl pkcs8 -topk8 -nocrypt)");
+    }
+
+    /**
+     * Offset of the value of the DER element starting at offset
+     */
+    private static int contentOffset(final byte[] der, final int offset) {
+        final int first = der[offset + 1] & 0xFF;
+        return first < 0x80 ? offset + 2 : offset + 2 + (first & 0x7F);
+    }
+
+    /**
+     * Length of the value of the DER element starting at offset
+     */
+    private static int contentLength(final byte[] der, final int offset) {
+        final int first = der[offset + 1] & 0xFF;
+        if (first < 0x80) {
+            return first;
+        }
+        final int bytes = first & 0x7F;
+        if (bytes > 3 || offset + 2 + bytes > der.length) {
+            throw new IllegalArgumentException("Invalid DER length in EC private key");
+        }
+        int length = 0;
+        for (int i = 0; i < bytes; i++) {
+            length = (length << 8) | (der[offset + 2 + i] & 0xFF);
+        }
+        if (offset + 2 + bytes + length > der.length) {
+            throw new IllegalArgumentException("Truncated DER element in EC private key");
+        }
+        return length;
+    }
+
+    private static byte[] concat(final byte[] first, final byte[] second) {
+        final byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Encodes a DER tag-length-value
+     */
+    private static byte[] derEncode(final byte tag, final byte[] value) {
+        final byte[] length;
+        if (value.length < 0x80) {
+            length = new byte[] {(byte) value.length};
+        } else if (value.length < 0x100) {
+            length = new byte[] {(byte) 0x81, (byte) value.length};
+        } else {
+            length = new byte[] {(byte) 0x82, (byte) (value.length >> 8), (byte) value.length};
+        }
+        final byte[] encoded = new byte[1 + length.length + value.length];
+        encoded[0] = tag;
+        System.arraycopy(length, 0, encoded, 1, length.length);
+        System.arraycopy(value, 0, encoded, 1 + length.length, value.length);
+        return encoded;
+    }
+
     /**
      * Reads key content from classpath resources
      */
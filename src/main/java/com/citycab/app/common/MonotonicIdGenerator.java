@@ -0,0 +1,58 @@
+package com.citycab.app.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identifiants ordonnés dans le temps, façon ULID, en base32 Crockford :
+ * 13 caractères pour (millisecondes << 20 | séquence), puis une partie aléatoire.
+ * La séquence est incrémentée sans verrou (CAS) et reste strictement croissante
+ * dans le process, même si l'horloge recule ; la partie aléatoire (ThreadLocalRandom,
+ * sans contention) sépare les instances. Les insertions arrivent en fin d'index.
+ */
+public class MonotonicIdGenerator implements IdGenerator {
+
+    public static final int MAX_RANDOM_LENGTH = 16;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SEQUENCE_BITS = 20;
+    private static final int TIME_LENGTH = 13;
+
+    private final AtomicLong state = new AtomicLong();
+
+    @Override
+    public String nextId(int randomLength) {
+        int length = Math.max(0, Math.min(randomLength, MAX_RANDOM_LENGTH));
+        char[] chars = new char[TIME_LENGTH + length];
+
+        long value = nextTimeAndSequence();
+        for (int i = TIME_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long bits = random.nextLong();
+        for (int i = 0; i < length; i++) {
+            // 12 caractères par long (60 bits)
+            if (i == 12) {
+                bits = random.nextLong();
+            }
+            chars[TIME_LENGTH + i] = ALPHABET[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private long nextTimeAndSequence() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long previous = state.get();
+            // Nouvelle milliseconde : séquence à 0 ; sinon (même ms ou horloge en arrière) : +1
+            long next = now > previous ? now : previous + 1;
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.citycab.app.common;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Registre global des permissions et codes de rôle : chaque chaîne reçoit un
+ * index stable (position dans les PermissionSet) et une seule instance de GrantedAuthority.
+ * Le registre ne fait que grandir ; il ne contient que des chaînes venues de la base
+ * ou de tokens que nous avons signés.
+ */
+public final class PermissionRegistry {
+
+    private PermissionRegistry() {}
+
+    private static final ConcurrentHashMap<String, Integer> INDEXES = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static volatile GrantedAuthority[] authorities = new GrantedAuthority[64];
+    private static int size;
+
+    /**
+     * Index de la permission, attribué au premier appel
+     */
+    public static int register(String name) {
+        Integer index = INDEXES.get(name);
+        if (index != null) {
+            return index;
+        }
+        synchronized (PermissionRegistry.class) {
+            index = INDEXES.get(name);
+            if (index != null) {
+                return index;
+            }
+            int next = size;
+            if (next == names.length) {
+                String[] grownNames = Arrays.copyOf(names, next * 2);
+                GrantedAuthority[] grownAuthorities = Arrays.copyOf(authorities, next * 2);
+                grownNames[next] = name;
+                grownAuthorities[next] = new SimpleGrantedAuthority(name);
+                authorities = grownAuthorities;
+                names = grownNames;
+            } else {
+                authorities[next] = new SimpleGrantedAuthority(name);
+                names[next] = name;
+            }
+            size = next + 1;
+            // Publié après les tableaux : qui lit l'index voit l'entrée
+            INDEXES.put(name, next);
+            return next;
+        }
+    }
+
+    /**
+     * Index de la permission, -1 si elle n'a jamais été enregistrée (aucun ensemble ne peut la contenir)
+     */
+    public static int indexOf(String name) {
+        Integer index = name == null ? null : INDEXES.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public static String name(int index) {
+        return names[index];
+    }
+
+    public static GrantedAuthority authority(int index) {
+        return authorities[index];
+    }
+}
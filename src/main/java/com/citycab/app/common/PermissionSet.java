@@ -0,0 +1,185 @@
+package com.citycab.app.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Ensemble immuable de permissions sous forme de bitset indexé par PermissionRegistry.
+ * Les tests d'appartenance ne font aucune allocation ; les vues (chaînes, authorities)
+ * sont calculées une seule fois par ensemble.
+ */
+public final class PermissionSet {
+
+    public static final PermissionSet EMPTY = new PermissionSet(new long[0]);
+
+    private final long[] words;
+    private volatile List<GrantedAuthority> authorities;
+    private volatile Set<String> names;
+
+    private PermissionSet(long[] words) {
+        this.words = words;
+    }
+
+    public static PermissionSet of(String... names) {
+        return of(Arrays.asList(names));
+    }
+
+    public static PermissionSet of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[0];
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            int index = PermissionRegistry.register(name);
+            int word = index >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << index;
+        }
+        return words.length == 0 ? EMPTY : new PermissionSet(words);
+    }
+
+    public PermissionSet union(PermissionSet other) {
+        if (other == null || other.isEmpty() || other == this) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        long[] merged = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            merged[i] |= other.words[i];
+        }
+        return new PermissionSet(merged);
+    }
+
+    public boolean contains(String name) {
+        return contains(PermissionRegistry.indexOf(name));
+    }
+
+    public boolean contains(int index) {
+        if (index < 0) {
+            return false;
+        }
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public boolean containsAny(PermissionSet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean containsAll(PermissionSet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            if ((mine & other.words[i]) != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Authorities partagées (instances du registre), liste immuable
+     */
+    public List<GrantedAuthority> authorities() {
+        List<GrantedAuthority> result = authorities;
+        if (result == null) {
+            List<GrantedAuthority> built = new ArrayList<>(size());
+            forEachIndex(index -> built.add(PermissionRegistry.authority(index)));
+            result = Collections.unmodifiableList(built);
+            authorities = result;
+        }
+        return result;
+    }
+
+    public Set<String> names() {
+        Set<String> result = names;
+        if (result == null) {
+            Set<String> built = new LinkedHashSet<>();
+            forEachIndex(index -> built.add(PermissionRegistry.name(index)));
+            result = Collections.unmodifiableSet(built);
+            names = result;
+        }
+        return result;
+    }
+
+    private void forEachIndex(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                action.accept((i << 6) + bit);
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PermissionSet other)) {
+            return false;
+        }
+        int length = Math.max(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            long theirs = i < other.words.length ? other.words[i] : 0L;
+            if (mine != theirs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+
+    @Override
+    public String toString() {
+        return names().toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.citycab.app.common;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Limiteur à fenêtre glissante (approximation à deux fenêtres fixes pondérées).
+ * Deux compteurs par clé ; le nombre de clés suivies est borné, les plus
+ * anciennes sont évincées en premier.
+ */
+public class SlidingWindowRateLimiter {
+
+    private final int limit;
+    private final long windowMs;
+    private final Cache<String, Window> windows;
+
+    public SlidingWindowRateLimiter(int limit, Duration window, long maxTrackedKeys) {
+        this.limit = limit;
+        this.windowMs = window.toMillis();
+        this.windows = Caffeine.newBuilder()
+            .maximumSize(maxTrackedKeys)
+            // Au-delà de deux fenêtres sans requête, la clé n'a plus d'historique utile
+            .expireAfterAccess(window.multipliedBy(2))
+            .build();
+    }
+
+    /**
+     * Retourne 0 si la requête est admise, sinon le délai en ms avant de réessayer
+     */
+    public long tryAcquire(String key) {
+        return windows.get(key, k -> new Window()).tryAcquire(System.currentTimeMillis(), limit, windowMs);
+    }
+
+    private static final class Window {
+        private long currentStart;
+        private int currentCount;
+        private int previousCount;
+
+        synchronized long tryAcquire(long now, int limit, long windowMs) {
+            long windowStart = now - (now % windowMs);
+            if (windowStart != currentStart) {
+                previousCount = windowStart - currentStart == windowMs ? currentCount : 0;
+                currentStart = windowStart;
+                currentCount = 0;
+            }
+
+            double previousWeight = 1.0 - (double) (now - windowStart) / windowMs;
+            if (previousCount * previousWeight + currentCount >= limit) {
+                return windowStart + windowMs - now;
+            }
+            currentCount++;
+            return 0;
+        }
+    }
+}
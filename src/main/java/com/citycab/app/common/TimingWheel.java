@@ -0,0 +1,166 @@
+package com.citycab.app.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique (Varghese & Lauck) pour des échéances en millisecondes.
+ * Le niveau 0 a une case par tick, chaque niveau supérieur couvre wheelSize fois le précédent ;
+ * une case d'un niveau supérieur est redistribuée vers les niveaux inférieurs quand son
+ * intervalle commence. Le coût d'un tick est proportionnel aux éléments qui arrivent à échéance.
+ * <p>
+ * schedule() est utilisable depuis n'importe quel thread (file sans verrou, absorbée au tick
+ * suivant) ; advance() doit être appelé par un seul thread, typiquement un @Scheduled.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    // Durée couverte par une case, par niveau : tickMs * wheelSize^niveau
+    private final long[] spans;
+    private final List<Entry<T>>[][] buckets;
+    private final Queue<Entry<T>> pending = new ConcurrentLinkedQueue<>();
+    private final List<Entry<T>> due = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels];
+        this.buckets = new List[levels][wheelSize];
+        long span = tickMs;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    /**
+     * Planifie l'élément pour l'échéance donnée (epoch ms). Thread-safe.
+     */
+    public void schedule(T item, long deadlineMs) {
+        pending.add(new Entry<>(item, deadlineMs));
+    }
+
+    /**
+     * Avance la roue jusqu'à nowMs et passe à expired chaque élément arrivé à échéance.
+     * Un seul thread à la fois.
+     */
+    public void advance(long nowMs, Consumer<T> expired) {
+        drainPending();
+        fireDue(expired);
+
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Niveaux supérieurs d'abord : leurs éléments peuvent tomber dans la case qui expire maintenant
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTime % spans[level] == 0) {
+                    cascade(level);
+                }
+            }
+
+            List<Entry<T>> bucket = takeBucket(0, slot(currentTime / tickMs));
+            if (bucket != null) {
+                for (Entry<T> entry : bucket) {
+                    place(entry);
+                }
+            }
+            fireDue(expired);
+        }
+    }
+
+    /**
+     * Nombre d'éléments planifiés, hors file d'attente (lecture depuis le thread de advance())
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    private void drainPending() {
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            size++;
+            place(entry);
+        }
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> bucket = takeBucket(level, slot(currentTime / spans[level]));
+        if (bucket != null) {
+            for (Entry<T> entry : bucket) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        // Niveau 0 arrondi au tick supérieur : jamais d'expiration avant l'échéance
+        long ticks = Math.floorDiv(entry.deadline + tickMs - 1, tickMs) - currentTime / tickMs;
+        if (ticks <= 0) {
+            due.add(entry);
+            return;
+        }
+        // ticks == wheelSize : case courante, déjà traitée pour ce tour
+        if (ticks <= wheelSize) {
+            addToBucket(0, slot(currentTime / tickMs + ticks), entry);
+            return;
+        }
+
+        for (int level = 1; level < spans.length; level++) {
+            long distance = entry.deadline / spans[level] - currentTime / spans[level];
+            if (distance < wheelSize) {
+                addToBucket(level, slot(entry.deadline / spans[level]), entry);
+                return;
+            }
+        }
+
+        // Au-delà de la roue : dernière case du niveau le plus haut, replacé à sa redistribution
+        int top = spans.length - 1;
+        addToBucket(top, slot(currentTime / spans[top] + wheelSize - 1), entry);
+    }
+
+    private void fireDue(Consumer<T> expired) {
+        if (due.isEmpty()) {
+            return;
+        }
+        for (Entry<T> entry : due) {
+            size--;
+            expired.accept(entry.item);
+        }
+        due.clear();
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) wheelSize);
+    }
+
+    private void addToBucket(int level, int slot, Entry<T> entry) {
+        List<Entry<T>> bucket = buckets[level][slot];
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets[level][slot] = bucket;
+        }
+        bucket.add(entry);
+    }
+
+    private List<Entry<T>> takeBucket(int level, int slot) {
+        List<Entry<T>> bucket = buckets[level][slot];
+        buckets[level][slot] = null;
+        return bucket;
+    }
+
+    private record Entry<T>(T item, long deadline) {}
+}
@@ -0,0 +1,34 @@
+package com.citycab.app.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class TokenDigest {
+
+    private TokenDigest() {}
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    // MessageDigest n'est pas thread-safe : une instance par thread
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Returns the lowercase hex SHA-256 digest of a token (64 characters)
+     */
+    public static String sha256Hex(final String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Token cannot be null");
+        }
+        final MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.citycab.app.dtos.AuthenticatedUser;
 import com.citycab.app.entities.UserEntity;
 
 import java.util.Optional;
@@ -23,6 +24,10 @@ public class ApplicationAuditAware implements AuditorAware<String> {
             return Optional.empty();
         }
 
+        if (authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return Optional.ofNullable(authenticatedUser.getUserId());
+        }
+
         UserEntity userPrincipal = (UserEntity) authentication.getPrincipal();
         return Optional.ofNullable(userPrincipal.getId());
     }
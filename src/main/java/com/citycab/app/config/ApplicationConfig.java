@@ -8,33 +8,59 @@ import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.citycab.app.entities.UserEntity;
 import com.citycab.app.repository.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
   private final UserRepository repository;
+  private final AuthPrincipalLoader authPrincipalLoader;
+  private final SecurityProperties securityProperties;
+  private final PlatformTransactionManager transactionManager;
+  private final MeterRegistry meterRegistry;
 
   @Bean
   public UserDetailsService userDetailsService() {
-    return identifier -> {
-      return repository.findByIdentifierAndArchivedAndEnabled(identifier, false, true).orElseThrow(() -> new UsernameNotFoundException("Email not found: " + identifier));
+    // Projection en une requête, sans charger le graphe rôles / permissions
+    UserDetailsService database = identifier -> {
+      return authPrincipalLoader.loadActive(identifier).orElseThrow(() -> new UsernameNotFoundException("Email not found: " + identifier));
     };
+    if (!securityProperties.getUserCache().isEnabled()) {
+      return database;
+    }
+    return new CachedUserDetailsService(database, transactionManager, securityProperties.getUserCache(), meterRegistry);
   }
 
   @Bean
-  public DaoAuthenticationProvider authenticationProvider() {
+  public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
     DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService());
-    authProvider.setPasswordEncoder(passwordEncoder());
+    authProvider.setPasswordEncoder(passwordEncoder);
+    // Rehash à la connexion quand le coût BCrypt configuré augmente
+    authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
     return authProvider;
   }
 
+  @Bean
+  public UserDetailsPasswordService userDetailsPasswordService() {
+    return (user, newPassword) -> {
+      UserEntity entity = repository.findByIdentifier(user.getUsername())
+        .orElseThrow(() -> new UsernameNotFoundException("Email not found: " + user.getUsername()));
+      entity.upgradePasswordHash(newPassword);
+      return repository.save(entity);
+    };
+  }
+
   @Bean
   public AuditorAware<String> auditorAware() {
     return new ApplicationAuditAware();
@@ -47,7 +73,9 @@ public class ApplicationConfig {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    SecurityProperties.Password password = securityProperties.getPassword();
+    // Hachage sur un pool dédié et borné : une rafale de connexions ne sature pas Tomcat
+    return new BoundedPasswordEncoder(new BCryptPasswordEncoder(password.getBcryptStrength()), password, meterRegistry);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.citycab.app.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.citycab.app.common.PermissionSet;
+import com.citycab.app.dtos.AuthenticatedUser;
+import com.citycab.app.enums.UserRole;
+
+/**
+ * Ce qu'un appelant peut attribuer en créant des comptes : jamais au-dessus de son propre rang
+ * (ordre de UserRole, ROOTADMIN en tête). Un rôle hors UserRole n'est attribuable que si
+ * l'appelant détient déjà toutes ses permissions.
+ */
+public final class AssignableRoles {
+
+    // Rang le plus élevé de l'appelant, null s'il n'en a aucun
+    private final UserRole callerRank;
+    private final PermissionSet callerAuthorities;
+
+    private AssignableRoles(UserRole callerRank, PermissionSet callerAuthorities) {
+        this.callerRank = callerRank;
+        this.callerAuthorities = callerAuthorities;
+    }
+
+    public static AssignableRoles of(Authentication authentication) {
+        if (authentication == null) {
+            return new AssignableRoles(null, PermissionSet.EMPTY);
+        }
+        PermissionSet authorities;
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getPermissionSet() != null) {
+            authorities = user.getPermissionSet();
+        } else {
+            List<String> names = new ArrayList<>();
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                names.add(authority.getAuthority());
+            }
+            authorities = PermissionSet.of(names);
+        }
+
+        UserRole rank = null;
+        for (UserRole role : UserRole.values()) {
+            if (authorities.contains(role.name())) {
+                rank = role;
+                break;
+            }
+        }
+        return new AssignableRoles(rank, authorities);
+    }
+
+    public boolean isRootAdmin() {
+        return callerRank == UserRole.ROOTADMIN;
+    }
+
+    public boolean canAssign(UserRole userType) {
+        return callerRank != null && userType != null && userType.compareTo(callerRank) >= 0;
+    }
+
+    public boolean canAssign(RoleCatalog.CatalogRole role) {
+        if (callerRank == null || role == null) {
+            return false;
+        }
+        for (UserRole rank : UserRole.values()) {
+            if (rank.name().equals(role.code())) {
+                return canAssign(rank);
+            }
+        }
+        return callerAuthorities.containsAll(role.permissionSet());
+    }
+}
@@ -0,0 +1,83 @@
+package com.citycab.app.config;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.citycab.app.common.PermissionSet;
+import com.citycab.app.dtos.AuthenticatedUser;
+import com.citycab.app.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Charge le principal d'authentification en une requête (utilisateur + ids de rôle),
+ * codes et permissions résolus par RoleCatalog. Le graphe UserEntity complet
+ * reste réservé aux écrans d'administration.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthPrincipalLoader {
+
+    private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+
+    /**
+     * Utilisateur actif (ni désactivé ni archivé), vide sinon.
+     * Toujours lu sur le primaire : un réplica en retard servirait un compte désactivé ou un ancien mot de passe.
+     */
+    @Transactional
+    public Optional<AuthenticatedUser> loadActive(String identifier) {
+        List<UserRepository.AuthRow> rows = userRepository.findActiveAuthRows(identifier);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        UserRepository.AuthRow user = rows.get(0);
+        Set<String> roles = new LinkedHashSet<>();
+        PermissionSet authorities = PermissionSet.EMPTY;
+        for (UserRepository.AuthRow row : rows) {
+            if (row.getRoleId() == null) {
+                continue;
+            }
+            RoleCatalog.CatalogRole role = resolveRole(row.getRoleId());
+            if (role != null) {
+                roles.add(role.code());
+                authorities = authorities.union(role.authoritySet());
+            }
+        }
+
+        return Optional.of(AuthenticatedUser.builder()
+            .userId(user.getId())
+            .username(user.getIdentifier())
+            .password(user.getPassword())
+            .userType(user.getUserType() == null ? null : user.getUserType().name())
+            .cityId(user.getCityId())
+            .city(user.getCity())
+            .countryCode(user.getCountryCode())
+            .securityVersion(user.getSecurityVersion() == null ? 0L : user.getSecurityVersion())
+            .roles(Set.copyOf(roles))
+            .permissionSet(authorities)
+            .build());
+    }
+
+    private RoleCatalog.CatalogRole resolveRole(String roleId) {
+        Optional<RoleCatalog.CatalogRole> role = roleCatalog.findById(roleId);
+        if (role.isEmpty() && !roleCatalog.isKnownMissing(roleId)) {
+            // Rôle créé depuis le dernier chargement : un rechargement complet, les rôles sont peu nombreux
+            roleCatalog.refresh();
+            role = roleCatalog.findById(roleId);
+            if (role.isEmpty()) {
+                roleCatalog.markMissing(roleId);
+                log.warn("Role {} not found in catalog, ignored for authentication", roleId);
+            }
+        }
+        return role.orElse(null);
+    }
+}
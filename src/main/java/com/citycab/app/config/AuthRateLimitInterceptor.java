@@ -0,0 +1,27 @@
+package com.citycab.app.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Limite par adresse client ; l'exception levée passe par GlobalExceptionHandler (429).
+ * Derrière le load balancer, getRemoteAddr() est l'adresse réelle du client : le RemoteIpValve
+ * de Tomcat (server.forward-headers-strategy=native) la lit dans X-Forwarded-For, uniquement
+ * pour les proxys déclarés dans server.tomcat.remoteip.internal-proxies.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthRateLimitInterceptor implements HandlerInterceptor {
+
+    private final AuthRateLimiter authRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        authRateLimiter.checkClientAddress(request.getRemoteAddr());
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.citycab.app.config;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import com.citycab.app.common.SlidingWindowRateLimiter;
+import com.citycab.app.exception.TooManyRequestsException;
+
+/**
+ * Throttling des endpoints d'authentification, par adresse client et par identifiant.
+ * Appelé avant tout travail cryptographique (BCrypt, signature JWT).
+ * Les endpoints réservés aux services ont leur propre quota, par compte de service.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final SlidingWindowRateLimiter byClientAddress;
+    private final SlidingWindowRateLimiter byIdentifier;
+    private final SlidingWindowRateLimiter byService;
+
+    public AuthRateLimiter(SecurityProperties securityProperties) {
+        SecurityProperties.RateLimit rateLimit = securityProperties.getRateLimit();
+        Duration window = Duration.ofSeconds(rateLimit.getWindowSeconds());
+        this.enabled = rateLimit.isEnabled();
+        this.byClientAddress = new SlidingWindowRateLimiter(rateLimit.getClientAddressLimit(), window, rateLimit.getMaxTrackedKeys());
+        this.byIdentifier = new SlidingWindowRateLimiter(rateLimit.getIdentifierLimit(), window, rateLimit.getMaxTrackedKeys());
+        this.byService = new SlidingWindowRateLimiter(rateLimit.getServiceLimit(), window, rateLimit.getMaxTrackedKeys());
+    }
+
+    public void checkClientAddress(String clientAddress) {
+        check(byClientAddress, clientAddress, "Too many authentication requests from this address");
+    }
+
+    public void checkIdentifier(String identifier) {
+        if (identifier == null) {
+            return;
+        }
+        check(byIdentifier, identifier.toLowerCase(Locale.ROOT), "Too many authentication attempts for this account");
+    }
+
+    public void checkService(String principal) {
+        check(byService, principal, "Too many requests for this service account");
+    }
+
+    private void check(SlidingWindowRateLimiter limiter, String key, String message) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long retryAfterMs = limiter.tryAcquire(key);
+        if (retryAfterMs > 0) {
+            throw new TooManyRequestsException(message, Math.max(1, (retryAfterMs + 999) / 1000));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.citycab.app.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.citycab.app.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * PasswordEncoder qui exécute le hachage sur un pool dédié et borné.
+ * Quand le pool et sa file sont pleins, la requête est refusée immédiatement
+ * au lieu de bloquer un thread Tomcat sur BCrypt.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final Timer latency;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, SecurityProperties.Password properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = properties.getHashingTimeoutMs();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            properties.getHashingThreads(),
+            properties.getHashingThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getHashingQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("citycab.password.hashing.queue", executor, e -> e.getQueue().size())
+            .description("Password hashing tasks waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("citycab.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Password hashing tasks running")
+            .register(meterRegistry);
+        this.latency = Timer.builder("citycab.password.hashing")
+            .description("Password hashing latency, queue wait included")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("citycab.password.hashing.rejected")
+            .description("Password hashing tasks rejected because the pool was saturated")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Simple lecture du coût dans le hash : pas besoin du pool
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Encodeur sous-jacent, pour les traitements de masse qui gèrent leur propre parallélisme
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Authentication service is busy, please retry shortly", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceOverloadedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
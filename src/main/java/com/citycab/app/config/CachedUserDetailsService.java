@@ -0,0 +1,99 @@
+package com.citycab.app.config;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citycab.app.dtos.AuthenticatedUser;
+import com.citycab.app.entities.CustomUserDetails;
+import com.citycab.app.entities.UserEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * UserDetailsService avec cache borné, partagé par le filtre JWT et le DaoAuthenticationProvider.
+ * Les entrées sont évincées par UserEntityListener après le commit de chaque modification de
+ * l'utilisateur (activation, archivage, rôles, mot de passe), et sur les autres instances via
+ * les événements USER du flux de révocation ; le TTL n'est qu'un filet de sécurité.
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final TransactionTemplate transaction;
+    private final Cache<String, UserDetails> users;
+
+    public CachedUserDetailsService(
+        UserDetailsService delegate,
+        PlatformTransactionManager transactionManager,
+        SecurityProperties.UserCache properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        // Pas de readOnly : état de sécurité lu sur le primaire, jamais sur un réplica en retard
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.users = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "userDetails");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
+        // Un identifiant inconnu lève une exception et n'est pas mis en cache
+        return users.get(identifier, this::load);
+    }
+
+    public void evict(String identifier) {
+        if (identifier != null) {
+            users.invalidate(identifier);
+        }
+    }
+
+    /**
+     * Évince les entrées de ces utilisateurs (événements reçus par identifiant technique)
+     */
+    public void evictUsers(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        users.asMap().values().removeIf(user -> userIds.contains(userId(user)));
+    }
+
+    public void invalidateAll() {
+        users.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return users.stats();
+    }
+
+    private static String userId(UserDetails user) {
+        if (user instanceof AuthenticatedUser authenticated) {
+            return authenticated.getUserId();
+        }
+        return user instanceof UserEntity entity ? entity.getId() : null;
+    }
+
+    private UserDetails load(String identifier) {
+        return transaction.execute(status -> {
+            UserDetails user = delegate.loadUserByUsername(identifier);
+            // Compilé dans la transaction : l'entité mise en cache est détachée ensuite
+            if (user instanceof CustomUserDetails details) {
+                details.getAuthoritySet();
+                details.getPermissionSet();
+            }
+            return user;
+        });
+    }
+}
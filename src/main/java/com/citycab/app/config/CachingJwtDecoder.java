@@ -0,0 +1,60 @@
+package com.citycab.app.config;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.citycab.app.common.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Décodeur JWT qui garde les tokens déjà vérifiés en mémoire.
+ * La signature n'est vérifiée qu'une seule fois par token ; l'entrée est
+ * évincée à l'expiration du token (claim exp).
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> verifiedTokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(Expiry.creating((String digest, Jwt jwt) -> timeToLive(jwt)))
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        // Clé = digest du token : taille fixe, pas de JWT complet en mémoire comme clé
+        return verifiedTokens.get(TokenDigest.sha256Hex(token), digest -> delegate.decode(token));
+    }
+
+    /**
+     * À appeler quand une clé est retirée du trousseau : ses tokens ne doivent plus passer
+     */
+    public void invalidateAll() {
+        verifiedTokens.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return verifiedTokens.stats();
+    }
+
+    private static Duration timeToLive(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
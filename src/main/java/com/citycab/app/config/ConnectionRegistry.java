@@ -1,170 +1,487 @@
 package com.citycab.app.config;
 
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
 
-import lombok.Builder;
-import lombok.Data;
+import com.citycab.app.common.TimingWheel;
+import com.citycab.app.enums.ConnectionType;
+import com.citycab.app.enums.UserRole;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Component
 @Slf4j
 public class ConnectionRegistry {
-    
-    // Session ID -> Connection Info
+
+    // Au-delà, un ensemble immuable copié à l'écriture devient un ensemble concurrent
+    private static final int SMALL_SET_MAX = 8;
+    // Verrous par tranche de session ID : connexion / déconnexion d'une même session sérialisées
+    private static final int LOCK_STRIPES = 256;
+    private static final String CITY_TOPIC = "/topic/city/";
+
+    // Session ID -> Connection Info (les abonnements de la session y sont portés)
     private final ConcurrentMap<String, ConnectionInfo> connections = new ConcurrentHashMap<>();
-    
-    // User ID -> List of Session IDs
+
+    // User ID -> Session IDs (le plus souvent une seule : ensemble immuable, pas de map par utilisateur)
     private final ConcurrentMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
-    
-    // City ID -> List of User IDs
-    private final ConcurrentMap<String, Set<String>> cityUsers = new ConcurrentHashMap<>();
-    
-    // Subscription tracking
-    private final ConcurrentMap<String, Set<String>> sessionSubscriptions = 
-        new ConcurrentHashMap<>();
-    
-    public void registerConnection(String sessionId, String userId, String userType,
-                                  String cityId, String countryCode, String connectionType) {
-        ConnectionInfo info = ConnectionInfo.builder()
-            .sessionId(sessionId)
-            .userId(userId)
-            .userType(userType)
-            .cityId(cityId)
-            .countryCode(countryCode)
-            .connectionType(connectionType)
-            .connectedAt(new Date())
-            .lastActivity(new Date())
-            .isActive(true)
-            .build();
-        
-        connections.put(sessionId, info);
-        
-        // Mettre à jour userSessions
-        userSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
-            .add(sessionId);
-        
-        // Mettre à jour cityUsers
-        if (cityId != null) {
-            cityUsers.computeIfAbsent(cityId, k -> ConcurrentHashMap.newKeySet())
-                .add(userId);
-        }
-        
+
+    // City ID -> (User ID -> nombre de sessions) : l'utilisateur reste dans la ville tant qu'une session y est ouverte
+    private final ConcurrentMap<String, ConcurrentMap<String, Integer>> cityUsers = new ConcurrentHashMap<>();
+
+    // (City ID, User type) -> Session IDs : requêtes de dispatch sans parcourir toutes les connexions
+    private final ConcurrentMap<CityTypeKey, Set<String>> citySessions = new ConcurrentHashMap<>();
+
+    // Index inverse : Destination -> Session IDs abonnées
+    private final ConcurrentMap<String, Set<String>> destinationSessions = new ConcurrentHashMap<>();
+
+    // Codes ville / pays et topics de ville : une seule instance partagée par toutes les sessions
+    private final ConcurrentMap<String, String> sharedStrings = new ConcurrentHashMap<>();
+
+    // Expiration des sessions inactives : ticks d'une seconde, 64 cases, 3 niveaux (~72 h couvertes)
+    private final TimingWheel<ConnectionInfo> idleWheel = new TimingWheel<>(1000, 64, 3, System.currentTimeMillis());
+    private final long idleTimeoutMs;
+    // Ferme la connexion réelle d'une session retirée par le serveur
+    private final Consumer<String> sessionCloser;
+
+    private final Object[] sessionLocks = new Object[LOCK_STRIPES];
+
+    public ConnectionRegistry(long idleTimeoutMs) {
+        this(idleTimeoutMs, sessionId -> { });
+    }
+
+    @Autowired
+    public ConnectionRegistry(
+        @Value("${citycab.websocket.idle-timeout-ms:300000}") long idleTimeoutMs,
+        WebSocketSessions webSocketSessions
+    ) {
+        this(idleTimeoutMs, sessionId -> webSocketSessions.close(sessionId, CloseStatus.SESSION_NOT_RELIABLE));
+    }
+
+    ConnectionRegistry(long idleTimeoutMs, Consumer<String> sessionCloser) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.sessionCloser = sessionCloser;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            sessionLocks[i] = new Object();
+        }
+    }
+
+    public void registerConnection(String sessionId, String userId, UserRole userType,
+                                  String cityId, String countryCode, ConnectionType connectionType) {
+        long now = System.currentTimeMillis();
+        ConnectionInfo info = new ConnectionInfo(
+            sessionId,
+            userId,
+            userType,
+            share(cityId),
+            share(countryCode),
+            connectionType,
+            now
+        );
+
+        synchronized (sessionLock(sessionId)) {
+            // Même session reconnectée : l'ancienne entrée est retirée des index avant d'indexer la nouvelle
+            ConnectionInfo previous = connections.put(sessionId, info);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(info);
+        }
+
+        idleWheel.schedule(info, now + idleTimeoutMs);
+
         log.debug("Registered connection: {}", info);
     }
-    
-    public void addSubscription(String sessionId, String userId, String destination) {
-        sessionSubscriptions.computeIfAbsent(sessionId, k -> ConcurrentHashMap.newKeySet())
-            .add(destination);
-        
+
+    public void addSubscription(String sessionId, String userId, String subscriptionId, String destination) {
+        ConnectionInfo info = connections.get(sessionId);
+        if (info == null) {
+            // Session expirée ou déjà retirée : le client doit se reconnecter pour être de nouveau indexé
+            log.debug("Subscription on unregistered session {}, closing it", sessionId);
+            sessionCloser.accept(sessionId);
+            return;
+        }
+        // Sans id STOMP, la destination sert d'id
+        String id = subscriptionId != null ? subscriptionId : destination;
+        String target = destination.startsWith(CITY_TOPIC) ? share(destination) : destination;
+
+        synchronized (info) {
+            // Session fermée entre-temps : removeConnection a déjà nettoyé l'index
+            if (!info.isActive()) {
+                sessionCloser.accept(sessionId);
+                return;
+            }
+            String previous = info.putSubscription(id, target);
+            if (previous != null && !previous.equals(target) && !info.isSubscribedTo(previous)) {
+                removeFromIndex(destinationSessions, previous, sessionId);
+            }
+            addToIndex(destinationSessions, target, sessionId);
+        }
+
         // Mettre à jour last activity
+        info.setLastActivity(System.currentTimeMillis());
+    }
+
+    public void removeSubscription(String sessionId, String subscriptionId) {
         ConnectionInfo info = connections.get(sessionId);
-        if (info != null) {
-            info.setLastActivity(new Date());
+        if (info == null || subscriptionId == null) {
+            return;
+        }
+        synchronized (info) {
+            String destination = info.removeSubscription(subscriptionId);
+            // La session peut être abonnée plusieurs fois à la même destination
+            if (destination != null && !info.isSubscribedTo(destination)) {
+                removeFromIndex(destinationSessions, destination, sessionId);
+            }
         }
     }
-    
+
     public void removeConnection(String sessionId) {
-        ConnectionInfo info = connections.remove(sessionId);
-        if (info != null) {
-            // Retirer de userSessions
-            Set<String> sessions = userSessions.get(info.getUserId());
-            if (sessions != null) {
-                sessions.remove(sessionId);
-                if (sessions.isEmpty()) {
-                    userSessions.remove(info.getUserId());
-                }
+        ConnectionInfo info;
+        synchronized (sessionLock(sessionId)) {
+            info = connections.remove(sessionId);
+            if (info == null) {
+                return;
             }
-            
-            // Retirer de cityUsers
-            if (info.getCityId() != null) {
-                Set<String> users = cityUsers.get(info.getCityId());
-                if (users != null) {
-                    users.remove(info.getUserId());
-                    if (users.isEmpty()) {
-                        cityUsers.remove(info.getCityId());
-                    }
-                }
+            unindex(info);
+        }
+        log.debug("Removed connection: {}", info);
+    }
+
+    /**
+     * Retire la session seulement si c'est toujours cette connexion (pas une reconnexion entre-temps)
+     */
+    private void removeConnection(ConnectionInfo info) {
+        synchronized (sessionLock(info.getSessionId())) {
+            if (!connections.remove(info.getSessionId(), info)) {
+                return;
+            }
+            unindex(info);
+        }
+        log.debug("Removed connection: {}", info);
+    }
+
+    /**
+     * Chaque index est mis à jour par compute / computeIfPresent sur sa clé : l'ajout d'une session
+     * et la suppression d'un ensemble devenu vide ne peuvent pas s'entrelacer.
+     */
+    private void index(ConnectionInfo info) {
+        addToIndex(userSessions, info.getUserId(), info.getSessionId());
+
+        if (info.getCityId() != null) {
+            cityUsers.compute(info.getCityId(), (city, users) -> {
+                ConcurrentMap<String, Integer> target = users != null ? users : new ConcurrentHashMap<>();
+                target.merge(info.getUserId(), 1, Integer::sum);
+                return target;
+            });
+            if (info.getUserType() != null) {
+                addToIndex(citySessions, new CityTypeKey(info.getCityId(), info.getUserType()), info.getSessionId());
             }
-            
-            // Nettoyer les subscriptions
-            sessionSubscriptions.remove(sessionId);
-            
-            info.setActive(false);
-            info.setDisconnectedAt(new Date());
-            
-            log.debug("Removed connection: {}", info);
         }
     }
-    
+
+    private void unindex(ConnectionInfo info) {
+        String sessionId = info.getSessionId();
+        removeFromIndex(userSessions, info.getUserId(), sessionId);
+
+        if (info.getCityId() != null) {
+            cityUsers.computeIfPresent(info.getCityId(), (city, users) -> {
+                users.computeIfPresent(info.getUserId(), (user, count) -> count > 1 ? count - 1 : null);
+                return users.isEmpty() ? null : users;
+            });
+            if (info.getUserType() != null) {
+                removeFromIndex(citySessions, new CityTypeKey(info.getCityId(), info.getUserType()), sessionId);
+            }
+        }
+
+        // Abonnements : sous le verrou de la session, après quoi addSubscription voit la session fermée
+        synchronized (info) {
+            info.markDisconnected(System.currentTimeMillis());
+            String[] subscriptions = info.subscriptions;
+            for (int i = 1; i < subscriptions.length; i += 2) {
+                removeFromIndex(destinationSessions, subscriptions[i], sessionId);
+            }
+            info.subscriptions = ConnectionInfo.NO_SUBSCRIPTIONS;
+        }
+    }
+
+    private Object sessionLock(String sessionId) {
+        return sessionLocks[(sessionId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
     public ConnectionInfo getConnection(String sessionId) {
         return connections.get(sessionId);
     }
-    
+
     public Set<String> getUserSessions(String userId) {
-        return userSessions.getOrDefault(userId, Collections.emptySet());
+        return readOnly(userSessions.get(userId));
     }
-    
+
     public Set<String> getUsersInCity(String cityId) {
-        return cityUsers.getOrDefault(cityId, Collections.emptySet());
+        ConcurrentMap<String, Integer> users = cityUsers.get(cityId);
+        return users != null ? Collections.unmodifiableSet(users.keySet()) : Collections.emptySet();
     }
-    
+
+    /**
+     * Sessions abonnées à la destination : vue en lecture seule de l'index, sans copie
+     */
     public Set<String> getSessionsSubscribedTo(String destination) {
-        return sessionSubscriptions.entrySet().stream()
-            .filter(entry -> entry.getValue().contains(destination))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toSet());
+        return readOnly(destinationSessions.get(destination));
     }
-    
+
     public List<ConnectionInfo> getActiveConnections() {
-        return connections.values().stream()
-            .filter(ConnectionInfo::isActive)
-            .collect(Collectors.toList());
+        List<ConnectionInfo> active = new ArrayList<>(connections.size());
+        for (ConnectionInfo info : connections.values()) {
+            if (info.isActive()) {
+                active.add(info);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Sessions d'un type d'utilisateur dans une ville : vue en lecture seule de l'index
+     */
+    public Set<String> getSessionsInCity(String cityId, UserRole userType) {
+        return readOnly(citySessions.get(new CityTypeKey(cityId, userType)));
     }
-    
+
     public List<ConnectionInfo> getActiveDriversInCity(String cityId) {
-        return connections.values().stream()
-            .filter(ConnectionInfo::isActive)
-            .filter(conn -> "DRIVER".equals(conn.getUserType()))
-            .filter(conn -> cityId.equals(conn.getCityId()))
-            .collect(Collectors.toList());
+        Set<String> sessions = citySessions.get(new CityTypeKey(cityId, UserRole.DRIVER));
+        if (sessions == null) {
+            return Collections.emptyList();
+        }
+        List<ConnectionInfo> drivers = new ArrayList<>(sessions.size());
+        for (String sessionId : sessions) {
+            ConnectionInfo info = connections.get(sessionId);
+            if (info != null && info.isActive()) {
+                drivers.add(info);
+            }
+        }
+        return drivers;
+    }
+
+    /**
+     * Nombre de sessions chauffeur actives dans la ville, sans parcours (taille de l'index)
+     */
+    public int getActiveDriverCount(String cityId) {
+        Set<String> sessions = citySessions.get(new CityTypeKey(cityId, UserRole.DRIVER));
+        return sessions != null ? sessions.size() : 0;
     }
-    
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
     public void updateLastActivity(String sessionId) {
         ConnectionInfo info = connections.get(sessionId);
         if (info != null) {
-            info.setLastActivity(new Date());
-        }
-    }
-    
-    public void cleanupInactiveConnections(long timeoutMs) {
-        long cutoff = System.currentTimeMillis() - timeoutMs;
-        
-        connections.values().stream()
-            .filter(ConnectionInfo::isActive)
-            .filter(conn -> conn.getLastActivity().getTime() < cutoff)
-            .forEach(conn -> {
-                log.warn("Cleaning up inactive connection: {}", conn.getSessionId());
-                removeConnection(conn.getSessionId());
-            });
+            info.setLastActivity(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Retire les sessions inactives depuis plus de idle-timeout-ms et ferme leur connexion.
+     * Les heartbeats STOMP (WebSocketConfig) comptent comme activité : une session qui ne fait
+     * qu'écouter reste enregistrée tant que son client bat. Seules les sessions dont
+     * l'échéance tombe dans la roue sont examinées ; une session active entre-temps est
+     * simplement replanifiée à sa nouvelle échéance (aucun coût par message).
+     */
+    @Scheduled(fixedDelayString = "${citycab.websocket.idle-check-ms:1000}")
+    public void expireIdleConnections() {
+        long now = System.currentTimeMillis();
+        idleWheel.advance(now, info -> {
+            // Session déjà fermée ou remplacée par une nouvelle connexion
+            if (connections.get(info.getSessionId()) != info) {
+                return;
+            }
+            long deadline = info.getLastActivity() + idleTimeoutMs;
+            if (deadline > now) {
+                idleWheel.schedule(info, deadline);
+                return;
+            }
+            log.warn("Cleaning up inactive connection: {}", info.getSessionId());
+            removeConnection(info);
+            sessionCloser.accept(info.getSessionId());
+        });
+    }
+
+    private String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = sharedStrings.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * Ajout atomique (compute) vis-à-vis de la suppression d'un ensemble devenu vide.
+     * Petits ensembles immuables copiés à l'écriture, ensemble concurrent au-delà de SMALL_SET_MAX.
+     */
+    private static <K> void addToIndex(ConcurrentMap<K, Set<String>> index, K key, String sessionId) {
+        index.compute(key, (k, sessions) -> {
+            if (sessions == null) {
+                return Set.of(sessionId);
+            }
+            if (sessions instanceof ConcurrentHashMap.KeySetView) {
+                sessions.add(sessionId);
+                return sessions;
+            }
+            if (sessions.contains(sessionId)) {
+                return sessions;
+            }
+            if (sessions.size() < SMALL_SET_MAX) {
+                String[] grown = sessions.toArray(new String[sessions.size() + 1]);
+                grown[sessions.size()] = sessionId;
+                return Set.of(grown);
+            }
+            Set<String> large = ConcurrentHashMap.newKeySet();
+            large.addAll(sessions);
+            large.add(sessionId);
+            return large;
+        });
+    }
+
+    private static <K> void removeFromIndex(ConcurrentMap<K, Set<String>> index, K key, String sessionId) {
+        index.computeIfPresent(key, (k, sessions) -> {
+            if (sessions instanceof ConcurrentHashMap.KeySetView) {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            }
+            if (!sessions.contains(sessionId)) {
+                return sessions;
+            }
+            if (sessions.size() == 1) {
+                return null;
+            }
+            String[] remaining = new String[sessions.size() - 1];
+            int i = 0;
+            for (String session : sessions) {
+                if (!session.equals(sessionId)) {
+                    remaining[i++] = session;
+                }
+            }
+            return Set.of(remaining);
+        });
+    }
+
+    private static Set<String> readOnly(Set<String> sessions) {
+        if (sessions == null) {
+            return Collections.emptySet();
+        }
+        // Les petits ensembles sont déjà immuables
+        return sessions instanceof ConcurrentHashMap.KeySetView ? Collections.unmodifiableSet(sessions) : sessions;
     }
-    
-    @Data
-    @Builder
+
+    private record CityTypeKey(String cityId, UserRole userType) {}
+
+    /**
+     * État d'une session, compact : enums, codes partagés, horodatages epoch ms primitifs,
+     * abonnements dans un tableau (id, destination) plutôt qu'une map par session.
+     */
+    @Getter
+    @ToString
     public static class ConnectionInfo {
-        private String sessionId;
-        private String userId;
-        private String userType;
-        private String cityId;
-        private String countryCode;
-        private String connectionType;
-        private Date connectedAt;
-        private Date lastActivity;
-        private Date disconnectedAt;
-        private boolean isActive;
-    }
-}
\ No newline at end of file
+
+        private static final String[] NO_SUBSCRIPTIONS = new String[0];
+
+        private final String sessionId;
+        private final String userId;
+        private final UserRole userType;
+        private final String cityId;
+        private final String countryCode;
+        private final ConnectionType connectionType;
+        private final long connectedAt;
+        // Epoch ms, écrit à chaque message : pas d'allocation
+        private volatile long lastActivity;
+        // 0 tant que la session est ouverte
+        private volatile long disconnectedAt;
+        // Paires (subscription id, destination), modifiées sous le verrou de l'instance
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private String[] subscriptions = NO_SUBSCRIPTIONS;
+
+        ConnectionInfo(String sessionId, String userId, UserRole userType, String cityId,
+                       String countryCode, ConnectionType connectionType, long connectedAt) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.userType = userType;
+            this.cityId = cityId;
+            this.countryCode = countryCode;
+            this.connectionType = connectionType;
+            this.connectedAt = connectedAt;
+            this.lastActivity = connectedAt;
+        }
+
+        public boolean isActive() {
+            return disconnectedAt == 0;
+        }
+
+        public void setLastActivity(long lastActivity) {
+            this.lastActivity = lastActivity;
+        }
+
+        /**
+         * Destinations auxquelles la session est abonnée (copie)
+         */
+        public synchronized List<String> getSubscribedDestinations() {
+            List<String> destinations = new ArrayList<>(subscriptions.length / 2);
+            for (int i = 1; i < subscriptions.length; i += 2) {
+                destinations.add(subscriptions[i]);
+            }
+            return destinations;
+        }
+
+        private void markDisconnected(long now) {
+            this.disconnectedAt = now;
+        }
+
+        // Destination précédente de cet id, null si nouvel abonnement
+        private String putSubscription(String id, String destination) {
+            for (int i = 0; i < subscriptions.length; i += 2) {
+                if (subscriptions[i].equals(id)) {
+                    String previous = subscriptions[i + 1];
+                    subscriptions[i + 1] = destination;
+                    return previous;
+                }
+            }
+            String[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 2);
+            grown[subscriptions.length] = id;
+            grown[subscriptions.length + 1] = destination;
+            subscriptions = grown;
+            return null;
+        }
+
+        private String removeSubscription(String id) {
+            for (int i = 0; i < subscriptions.length; i += 2) {
+                if (subscriptions[i].equals(id)) {
+                    String destination = subscriptions[i + 1];
+                    String[] shrunk = new String[subscriptions.length - 2];
+                    System.arraycopy(subscriptions, 0, shrunk, 0, i);
+                    System.arraycopy(subscriptions, i + 2, shrunk, i, subscriptions.length - i - 2);
+                    subscriptions = shrunk;
+                    return destination;
+                }
+            }
+            return null;
+        }
+
+        private boolean isSubscribedTo(String destination) {
+            for (int i = 1; i < subscriptions.length; i += 2) {
+                if (subscriptions[i].equals(destination)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
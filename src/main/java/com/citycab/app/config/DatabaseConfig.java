@@ -1,15 +1,35 @@
 package com.citycab.app.config;
 
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 
 
 @Configuration
-public class DatabaseConfig {
+@RequiredArgsConstructor
+public class DatabaseConfig implements DisposableBean {
+
+    private final DatabaseProperties databaseProperties;
+    private final MeterRegistry meterRegistry;
+    // Derrière le proxy de routage, close() n'atteint pas les pools : fermés par destroy()
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
 
     @Value("${spring.datasource.url}")
     private String url;
@@ -20,12 +40,77 @@ public class DatabaseConfig {
     @Value("${db.password:1234}")
     private String password;
     
-    @Bean
+    @Bean(destroyMethod = "")
     public DataSource dataSource() {
-        return DataSourceBuilder.create()
-            .url(url)
-            .username(username)
-            .password(password)
-            .build();
+        HikariDataSource primary = pool("citycab-primary", url, username, password, databaseProperties.getPool(), false);
+
+        DatabaseProperties.Replica replica = databaseProperties.getReplica();
+        if (!replica.isEnabled() || !StringUtils.hasText(replica.getUrl())) {
+            return primary;
+        }
+
+        HikariDataSource readOnly = pool(
+            "citycab-replica",
+            replica.getUrl(),
+            StringUtils.hasText(replica.getUsername()) ? replica.getUsername() : username,
+            StringUtils.hasText(replica.getPassword()) ? replica.getPassword() : password,
+            replica.getPool(),
+            true
+        );
+        return routingDataSource(primary, readOnly);
+    }
+
+    /**
+     * Routage primaire / réplica derrière un proxy paresseux : le choix se fait à la première
+     * requête de la transaction, une fois son caractère readOnly et le marqueur ReplicaReads connus.
+     */
+    static DataSource routingDataSource(DataSource primary, DataSource replica) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+            ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+            ReadWriteRoutingDataSource.Route.REPLICA, replica
+        ));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routing);
+        // Valeurs par défaut de Hikari et PostgreSQL : pas de connexion ouverte pour les découvrir
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    private HikariDataSource pool(String name, String jdbcUrl, String user, String secret, DatabaseProperties.Pool pool, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(user);
+        config.setPassword(secret);
+        config.setReadOnly(readOnly);
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setMinimumIdle(pool.getMinimumIdle());
+        config.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        config.setIdleTimeout(pool.getIdleTimeoutMs());
+        config.setMaxLifetime(pool.getMaxLifetimeMs());
+        config.setLeakDetectionThreshold(pool.getLeakDetectionThresholdMs());
+        config.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+        config.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.getPreparedStatementCacheSizeMiB());
+        config.addDataSourceProperty("reWriteBatchedInserts", pool.isRewriteBatchedInserts());
+        // Métriques hikaricp.connections.* (actives, en attente, temps d'acquisition) taguées par pool
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        HikariDataSource dataSource = new HikariDataSource(config);
+        pools.add(dataSource);
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource pool : pools) {
+            pool.close();
+        }
+        pools.clear();
     }
 }
@@ -0,0 +1,42 @@
+package com.citycab.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "citycab.datasource")
+public class DatabaseProperties {
+    private Pool pool = new Pool();
+    private Replica replica = new Replica();
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 20;
+        private int minimumIdle = 5;
+        private long connectionTimeoutMs = 3000;
+        private long idleTimeoutMs = 600000;
+        private long maxLifetimeMs = 1800000;
+        // Connexion gardée plus longtemps que ce seuil : trace de la pile d'appel (0 = désactivé)
+        private long leakDetectionThresholdMs = 0;
+        // Cache de prepared statements côté serveur du driver PostgreSQL (par connexion)
+        private int prepareThreshold = 5;
+        private int preparedStatementCacheQueries = 256;
+        private int preparedStatementCacheSizeMiB = 5;
+        // INSERT multi-lignes pour les lots JDBC (batch_size Hibernate)
+        private boolean rewriteBatchedInserts = true;
+    }
+
+    @Data
+    public static class Replica {
+        // Les lectures passées par ReplicaReads partent sur le réplica quand il est activé
+        private boolean enabled = false;
+        private String url;
+        // Identifiants du primaire si non renseignés
+        private String username;
+        private String password;
+        private Pool pool = new Pool();
+    }
+}
@@ -19,7 +19,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.citycab.app.repository.TokenRepository;
+import com.citycab.app.dtos.AuthenticatedUser;
+import com.citycab.app.dtos.JwtClaims;
+import com.citycab.app.enums.PrincipalMode;
 
 @Component
 @RequiredArgsConstructor
@@ -27,7 +29,8 @@ public class JwtAuthenticationFilter extends  OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final TokenRevocationIndex revocationIndex;
+    private final SecurityProperties securityProperties;
 
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
@@ -42,12 +45,14 @@ public class JwtAuthenticationFilter extends  OncePerRequestFilter {
 
         try {
             String jwt = getJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                validateToken(jwt, userDetails);
+            // Une seule vérification de signature par requête (résultat mis en cache par le décodeur)
+            JwtClaims claims = StringUtils.hasText(jwt)
+                ? jwtTokenProvider.verifyToken(jwt).orElse(null)
+                : null;
+
+            if (claims != null && StringUtils.hasText(claims.getUsername())) {
+                UserDetails userDetails = loadPrincipal(claims);
+                validateToken(jwt, claims, userDetails);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, 
                     null, 
@@ -64,11 +69,15 @@ public class JwtAuthenticationFilter extends  OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private void validateToken(String jwt, UserDetails userDetails) {
-        if (!jwtTokenProvider.validateToken(jwt)) {
-        throw new SecurityException("Invalid token signature");
+    private UserDetails loadPrincipal(JwtClaims claims) {
+        if (securityProperties.getPrincipalMode() == PrincipalMode.STATELESS) {
+            // Pas d'accès base : les authorities viennent du token, l'état du compte de l'index
+            return AuthenticatedUser.fromClaims(claims);
         }
+        return userDetailsService.loadUserByUsername(claims.getUsername());
+    }
 
+    private void validateToken(String jwt, JwtClaims claims, UserDetails userDetails) {
         if (!userDetails.isEnabled() 
         || !userDetails.isAccountNonLocked() 
         || !userDetails.isAccountNonExpired() 
@@ -76,13 +85,13 @@ public class JwtAuthenticationFilter extends  OncePerRequestFilter {
             throw new SecurityException("User revoked or inactive");
         }
 
-        boolean isTokenValid = tokenRepository.findByToken(jwt)
-            .map(t -> !t.isExpired() && !t.isRevoked())
-            .orElse(false);
-
-        if (!isTokenValid) {
+        if (revocationIndex.isRevoked(jwt)) {
             throw new SecurityException("Token expired or revoked");
         }
+
+        if (revocationIndex.isStale(claims.getUserId(), claims.getSecurityVersion())) {
+            throw new SecurityException("Token issued before a security change");
+        }
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
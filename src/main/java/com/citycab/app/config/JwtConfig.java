@@ -1,15 +1,9 @@
 package com.citycab.app.config;
 
-import com.citycab.app.common.AssetsData;
-import com.citycab.app.common.KeyUtils;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
-import lombok.Data;
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -20,21 +14,9 @@ import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-
-@Data
 @Configuration
 public class JwtConfig {
 
-    private RSAPublicKey publicKey;
-    private RSAPrivateKey privateKey;
-   
-    public JwtConfig() throws Exception {
-        this.privateKey = KeyUtils.loadPrivateKeyFromFile(AssetsData.privateKeyPath);
-        this.publicKey = KeyUtils.loadPublicKeyFromFile(AssetsData.publicKeyPath);
-    }
-    
     @Bean
     public KeyPair keyPair() {
         try {
@@ -45,15 +27,16 @@ public class JwtConfig {
             throw new RuntimeException("Failed to generate RSA key pair", e);
         }
     }
+
+    @Bean
+    public JwtKeyRing jwtKeyRing(JwtSigningProperties signingProperties) throws Exception {
+        // Clé active (RSA ou EC selon jwt.signing.algorithm) + anciennes clés acceptées en vérification
+        return JwtKeyRing.load(signingProperties);
+    }
     
     @Bean
-    public JWKSource<SecurityContext> jwkSource() {
-        RSAKey rsaKey = new RSAKey.Builder(publicKey)
-            .privateKey(privateKey)
-            .keyID("citycab-RSA-Key")
-            .build();
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return new ImmutableJWKSet<>(jwkSet);
+    public JWKSource<SecurityContext> jwkSource(JwtKeyRing jwtKeyRing) {
+        return jwtKeyRing.jwkSource();
     }
     
     @Bean
@@ -62,7 +45,16 @@ public class JwtConfig {
     }
     
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(publicKey).build();
+    public JwtDecoder jwtDecoder(
+        JwtKeyRing jwtKeyRing,
+        @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize
+    ) {
+        // La clé est choisie par kid : les tokens signés avec une ancienne clé restent valides,
+        // et une rotation vers un autre algorithme ne demande pas de reconstruire le décodeur
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSource(jwtKeyRing.jwkSource())
+            .jwsAlgorithms(algorithms -> algorithms.addAll(JwtKeyRing.SUPPORTED_ALGORITHMS))
+            .build();
+        // Filtre JWT et resource server partagent ce décodeur : une seule vérification de signature par token
+        return new CachingJwtDecoder(decoder, verifiedCacheSize);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.citycab.app.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+import com.citycab.app.common.KeyUtils;
+import com.citycab.app.common.TokenDigest;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Trousseau de clés JWT : une clé de signature active (RSA ou EC) et les
+ * clés publiques encore acceptées en vérification, sélectionnées par kid.
+ * Le document JWKS publié est recalculé une fois par rotation, pas par requête.
+ */
+public class JwtKeyRing {
+
+    // Le décodeur accepte toute signature asymétrique : la clé est imposée par le kid
+    public static final Set<SignatureAlgorithm> SUPPORTED_ALGORITHMS = Set.of(
+        SignatureAlgorithm.RS256, SignatureAlgorithm.RS384, SignatureAlgorithm.RS512,
+        SignatureAlgorithm.ES256, SignatureAlgorithm.ES384, SignatureAlgorithm.ES512
+    );
+
+    private final AtomicReference<KeyState> state = new AtomicReference<>();
+
+    public JwtKeyRing(SignatureAlgorithm algorithm, JWK signingKey, List<JWK> previousKeys) {
+        rotate(algorithm, signingKey, previousKeys);
+    }
+
+    public static JwtKeyRing load(JwtSigningProperties properties) throws Exception {
+        return new JwtKeyRing(properties.getAlgorithm(), loadSigningKey(properties), loadPreviousKeys(properties));
+    }
+
+    /**
+     * Remplace atomiquement la clé active et les clés de vérification
+     */
+    public void rotate(SignatureAlgorithm algorithm, JWK signingKey, List<JWK> previousKeys) {
+        if (!signingKey.isPrivate()) {
+            throw new IllegalArgumentException("Signing key must contain a private key: " + signingKey.getKeyID());
+        }
+        List<JWK> keys = new ArrayList<>();
+        keys.add(signingKey);
+        for (JWK previous : previousKeys) {
+            if (!previous.getKeyID().equals(signingKey.getKeyID())) {
+                keys.add(previous.toPublicJWK());
+            }
+        }
+        JWKSet keySet = new JWKSet(keys);
+        state.set(new KeyState(algorithm, signingKey, keySet, JwksDocument.of(keySet.toPublicJWKSet())));
+    }
+
+    /**
+     * Recharge la clé active et les clés de vérification depuis la configuration
+     */
+    public void reload(JwtSigningProperties properties) throws Exception {
+        rotate(properties.getAlgorithm(), loadSigningKey(properties), loadPreviousKeys(properties));
+    }
+
+    public String signingKeyId() {
+        return state.get().signingKey().getKeyID();
+    }
+
+    public JwksDocument jwksDocument() {
+        return state.get().document();
+    }
+
+    public JWKSource<SecurityContext> jwkSource() {
+        return (selector, context) -> selector.select(state.get().keys());
+    }
+
+    public JwsHeader signingHeader() {
+        KeyState current = state.get();
+        return JwsHeader.with(current.algorithm())
+            .keyId(current.signingKey().getKeyID())
+            .build();
+    }
+
+    public JWKSet publicKeys() {
+        return state.get().keys().toPublicJWKSet();
+    }
+
+    /**
+     * Algorithmes de toutes les clés du trousseau, pour configurer le décodeur
+     */
+    public Set<SignatureAlgorithm> algorithms() {
+        Set<SignatureAlgorithm> algorithms = new LinkedHashSet<>();
+        for (JWK key : state.get().keys().getKeys()) {
+            algorithms.add(SignatureAlgorithm.from(key.getAlgorithm().getName()));
+        }
+        return algorithms;
+    }
+
+    public static JWK toJwk(SignatureAlgorithm algorithm, String keyId, PublicKey publicKey, PrivateKey privateKey) {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm.getName());
+        if (publicKey instanceof RSAPublicKey rsaPublicKey) {
+            RSAKey.Builder builder = new RSAKey.Builder(rsaPublicKey)
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(jwsAlgorithm);
+            if (privateKey != null) {
+                builder.privateKey((RSAPrivateKey) privateKey);
+            }
+            return builder.build();
+        }
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            ECKey.Builder builder = new ECKey.Builder(Curve.forECParameterSpec(ecPublicKey.getParams()), ecPublicKey)
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(jwsAlgorithm);
+            if (privateKey != null) {
+                builder.privateKey((ECPrivateKey) privateKey);
+            }
+            return builder.build();
+        }
+        throw new IllegalArgumentException("Unsupported key type for " + algorithm + ": " + publicKey.getAlgorithm());
+    }
+
+    private static JWK loadSigningKey(JwtSigningProperties properties) throws Exception {
+        return loadSigningKey(properties.getAlgorithm(), properties.getKeyId(),
+            properties.getPrivateKeyPath(), properties.getPublicKeyPath());
+    }
+
+    public static JWK loadSigningKey(SignatureAlgorithm algorithm, String keyId, String privateKeyPath, String publicKeyPath) throws Exception {
+        if (isEc(algorithm)) {
+            return toJwk(algorithm, keyId,
+                KeyUtils.loadEcPublicKeyFromFile(publicKeyPath),
+                KeyUtils.loadEcPrivateKeyFromFile(privateKeyPath));
+        }
+        return toJwk(algorithm, keyId,
+            KeyUtils.loadPublicKeyFromFile(publicKeyPath),
+            KeyUtils.loadPrivateKeyFromFile(privateKeyPath));
+    }
+
+    private static List<JWK> loadPreviousKeys(JwtSigningProperties properties) throws Exception {
+        List<JWK> keys = new ArrayList<>();
+        for (JwtSigningProperties.VerificationKey previous : properties.getPreviousKeys()) {
+            PublicKey publicKey = isEc(previous.getAlgorithm())
+                ? KeyUtils.loadEcPublicKeyFromFile(previous.getPublicKeyPath())
+                : KeyUtils.loadPublicKeyFromFile(previous.getPublicKeyPath());
+            keys.add(toJwk(previous.getAlgorithm(), previous.getKeyId(), publicKey, null));
+        }
+        return keys;
+    }
+
+    private static boolean isEc(SignatureAlgorithm algorithm) {
+        return algorithm.getName().startsWith("ES");
+    }
+
+    private record KeyState(SignatureAlgorithm algorithm, JWK signingKey, JWKSet keys, JwksDocument document) {}
+
+    /**
+     * JWKS sérialisé (clés publiques uniquement) et son ETag
+     */
+    public record JwksDocument(byte[] body, String etag) {
+
+        static JwksDocument of(JWKSet publicKeys) {
+            String json = publicKeys.toString();
+            return new JwksDocument(json.getBytes(StandardCharsets.UTF_8), "\"" + TokenDigest.sha256Hex(json).substring(0, 32) + "\"");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.citycab.app.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.stereotype.Component;
+
+import com.citycab.app.common.AssetsData;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+    // RS256/RS384/RS512 (clé RSA) ou ES256/ES384/ES512 (clé EC)
+    private SignatureAlgorithm algorithm = SignatureAlgorithm.RS256;
+    private String keyId = "citycab-RSA-Key";
+    private String privateKeyPath = AssetsData.privateKeyPath;
+    private String publicKeyPath = AssetsData.publicKeyPath;
+    // Clés publiques acceptées en vérification : ancienne clé après rotation, ou prochaine clé avant
+    private List<VerificationKey> previousKeys = new ArrayList<>();
+    // Intervalle de vérification des fichiers de clés (rotation sans redémarrage)
+    private long reloadIntervalMs = 60000;
+    // Durée de cache HTTP du document JWKS
+    private long jwksMaxAgeSeconds = 300;
+
+    @Data
+    public static class VerificationKey {
+        private String keyId;
+        private SignatureAlgorithm algorithm = SignatureAlgorithm.RS256;
+        private String publicKeyPath;
+    }
+}
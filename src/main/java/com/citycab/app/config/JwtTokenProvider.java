@@ -5,8 +5,11 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -32,6 +35,7 @@ public class JwtTokenProvider {
     
     private final JwtEncoder jwtEncoder;
     private final JwtDecoder jwtDecoder;
+    private final JwtKeyRing jwtKeyRing;
 
     //@Value("${jwt.issuer}")
     //private String issuer;
@@ -68,10 +72,12 @@ public class JwtTokenProvider {
                 .claim("countryCode", claims.getCountryCode())
                 .claim("cityId", claims.getCityId())
                 .claim("city", claims.getCityId())
+                .claim("userType", claims.getUserType())
+                .claim("sv", claims.getSecurityVersion())
                 .audience(audiences)
                 .build();
         
-        return jwtEncoder.encode(JwtEncoderParameters.from(claimsSet)).getTokenValue();
+        return jwtEncoder.encode(JwtEncoderParameters.from(jwtKeyRing.signingHeader(), claimsSet)).getTokenValue();
     }
 
     public String generateRefreshToken(String userId) {
@@ -86,31 +92,30 @@ public class JwtTokenProvider {
                 .claim("tokenType", "REFRESH")
                 .build();
         
-        return jwtEncoder.encode(JwtEncoderParameters.from(claimsSet)).getTokenValue();
+        return jwtEncoder.encode(JwtEncoderParameters.from(jwtKeyRing.signingHeader(), claimsSet)).getTokenValue();
     }
     
     public JwtClaims parseToken(String token) {
         try {
-            Jwt jwt = jwtDecoder.decode(token);
-            
-            return JwtClaims.builder()
-                .userId(jwt.getClaim("userId"))
-                .username(jwt.getClaim("username"))
-                .roles(jwt.getClaim("roles"))
-                .authorities(jwt.getClaim("authorities"))
-                .iss(jwt.getIssuer().toString())
-                .iat(jwt.getIssuedAt().getEpochSecond())
-                .exp(jwt.getExpiresAt().getEpochSecond())
-                .aud(jwt.getAudience().toString())
-                .countryCode(jwt.getClaim("countryCode"))
-                .cityId(jwt.getClaim("cityId"))
-                .build();
+            return toClaims(jwtDecoder.decode(token));
         } catch (Exception e) {
             log.error("Failed to parse JWT token", e);
             throw new RuntimeException("Invalid JWT token");
         }
     }
 
+    /**
+     * Vérifie le token une seule fois et retourne ses claims, vide si le token est invalide
+     */
+    public Optional<JwtClaims> verifyToken(String token) {
+        try {
+            return Optional.of(toClaims(jwtDecoder.decode(token)));
+        } catch (Exception e) {
+            log.debug("JWT verification failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public String getUsernameFromToken(String token) {
         return parseToken(token).getUsername();
     }
@@ -125,6 +130,29 @@ public class JwtTokenProvider {
         }
     }
 
+    private JwtClaims toClaims(Jwt jwt) {
+        return JwtClaims.builder()
+            .userId(jwt.getClaim("userId"))
+            .username(jwt.getClaim("username"))
+            .roles(stringSet(jwt, "roles"))
+            .authorities(stringSet(jwt, "authorities"))
+            .iss(jwt.getIssuer().toString())
+            .iat(jwt.getIssuedAt().getEpochSecond())
+            .exp(jwt.getExpiresAt().getEpochSecond())
+            .aud(jwt.getAudience().toString())
+            .countryCode(jwt.getClaim("countryCode"))
+            .cityId(jwt.getClaim("cityId"))
+            .userType(jwt.getClaim("userType"))
+            .securityVersion(jwt.hasClaim("sv") ? ((Number) jwt.getClaim("sv")).longValue() : null)
+            .build();
+    }
+
+    // Les tableaux JSON arrivent en List : conversion explicite plutôt qu'un cast implicite en Set
+    private static Set<String> stringSet(Jwt jwt, String claim) {
+        List<String> values = jwt.getClaimAsStringList(claim);
+        return values == null ? new HashSet<>() : new HashSet<>(values);
+    }
+
     private  String getIssuer() {
         HttpServletRequest request = getCurrentHttpRequest();
         return request != null ? request.getRequestURL().toString() : "citycab-app";
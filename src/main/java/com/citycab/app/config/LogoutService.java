@@ -8,14 +8,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Service;
 
-import com.citycab.app.entities.TokenEntity;
-import com.citycab.app.repository.TokenRepository;
+import com.citycab.app.services.TokenService;
 
 @Service
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler {
 
-  private final TokenRepository tokenRepository;
+  private final TokenService tokenService;
 
   @Override
   public void logout(
@@ -29,11 +28,7 @@ public class LogoutService implements LogoutHandler {
       return;
     }
     jwt = authHeader.substring(7);
-    TokenEntity storedToken = tokenRepository.findByToken(jwt).orElse(null);
-    if (storedToken != null) {
-      storedToken.setExpired(true);
-      storedToken.setRevoked(true);
-      tokenRepository.save(storedToken);
+    if (tokenService.revokeToken(jwt)) {
       SecurityContextHolder.clearContext();
     }
   }
@@ -0,0 +1,45 @@
+package com.citycab.app.config;
+
+import java.io.Serializable;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+
+import com.citycab.app.common.PermissionSet;
+import com.citycab.app.dtos.AuthenticatedUser;
+import com.citycab.app.dtos.JwtClaims;
+import com.citycab.app.entities.CustomUserDetails;
+
+/**
+ * hasPermission(...) dans les expressions @PreAuthorize : test de bit sur le
+ * PermissionSet du principal, sans parcourir ni allouer d'authorities.
+ */
+public class PermissionSetEvaluator implements PermissionEvaluator {
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return permission instanceof String code && permissionsOf(authentication).contains(code);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        return hasPermission(authentication, null, permission);
+    }
+
+    private static PermissionSet permissionsOf(Authentication authentication) {
+        if (authentication == null) {
+            return PermissionSet.EMPTY;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof CustomUserDetails user) {
+            return user.getAuthoritySet();
+        }
+        if (principal instanceof AuthenticatedUser user) {
+            return user.getPermissionSet();
+        }
+        if (authentication.getDetails() instanceof JwtClaims claims) {
+            return claims.getPermissionSet();
+        }
+        return PermissionSet.EMPTY;
+    }
+}
@@ -0,0 +1,26 @@
+package com.citycab.app.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envoie vers le réplica les seules transactions readOnly ouvertes par ReplicaReads, le reste
+ * (dont les requêtes readOnly par défaut de Spring Data) vers le primaire.
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : la connexion réelle n'est alors
+ * demandée qu'à la première requête, quand la transaction et son marqueur sont en place.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    // Ressource de transaction posée par ReplicaReads : lecture qui tolère le retard du réplica
+    static final Object REPLICA_READ = new Object();
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && TransactionSynchronizationManager.hasResource(REPLICA_READ)
+            ? Route.REPLICA
+            : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,39 @@
+package com.citycab.app.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lectures servies par le réplica quand il est activé (citycab.datasource.replica).
+ * Réservé aux lectures qui tolèrent quelques secondes de retard : l'authentification,
+ * les révocations et toute lecture suivie d'une écriture restent sur le primaire.
+ * Dans une transaction déjà ouverte, la lecture suit la connexion de celle-ci.
+ */
+@Component
+public class ReplicaReads {
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReplicaReads(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> T execute(Supplier<T> read) {
+        return readOnlyTransaction.execute(status -> {
+            if (!status.isNewTransaction()) {
+                return read.get();
+            }
+            TransactionSynchronizationManager.bindResource(ReadWriteRoutingDataSource.REPLICA_READ, Boolean.TRUE);
+            try {
+                return read.get();
+            } finally {
+                TransactionSynchronizationManager.unbindResource(ReadWriteRoutingDataSource.REPLICA_READ);
+            }
+        });
+    }
+}
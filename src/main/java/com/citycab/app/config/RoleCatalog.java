@@ -0,0 +1,178 @@
+package com.citycab.app.config;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.citycab.app.common.PermissionSet;
+import com.citycab.app.entities.Role;
+import com.citycab.app.repository.RoleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catalogue en mémoire des rôles et de leurs permissions, chargé au démarrage.
+ * Rechargé après chaque sauvegarde d'un Role (RoleEntityListener) et périodiquement
+ * pour suivre les modifications faites par les autres instances.
+ * Les principaux en cache portent les permissions compilées : le cache des utilisateurs
+ * est vidé quand un rôle change.
+ */
+@Slf4j
+@Component
+public class RoleCatalog {
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    private final RoleRepository roleRepository;
+    // Résolution paresseuse : le UserDetailsService dépend lui-même du catalogue
+    private final ObjectProvider<UserDetailsService> userDetailsService;
+    // Ids absents après un rechargement : pas de rechargement complet à chaque requête qui les porte
+    private final Cache<String, Boolean> missingIds;
+
+    public RoleCatalog(
+        RoleRepository roleRepository,
+        ObjectProvider<UserDetailsService> userDetailsService,
+        @Value("${citycab.roles.missing-ttl-ms:60000}") long missingTtlMs
+    ) {
+        this.roleRepository = roleRepository;
+        this.userDetailsService = userDetailsService;
+        this.missingIds = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMillis(missingTtlMs))
+            .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${citycab.roles.refresh-ms:300000}",
+        initialDelayString = "${citycab.roles.refresh-ms:300000}"
+    )
+    // Primaire : les permissions d'un rôle modifié ne doivent pas revenir depuis un réplica en retard
+    @Transactional
+    public void refresh() {
+        Map<String, CatalogRole> byId = new HashMap<>();
+        Map<String, CatalogRole> byCode = new HashMap<>();
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            CatalogRole entry = CatalogRole.of(role.getId(), role.getCode(), role.getName(), role.getPermissions());
+            byId.put(entry.id(), entry);
+            if (entry.code() != null) {
+                byCode.put(entry.code(), entry);
+            }
+        }
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byCode));
+        missingIds.invalidateAll();
+        // Rôle modifié sur une autre instance : les principaux en cache portent les anciennes permissions
+        if (!previous.byId().isEmpty() && !previous.byId().equals(snapshot.byId())) {
+            clearCachedUsers();
+        }
+        log.debug("Role catalog loaded: {} roles", byId.size());
+    }
+
+    /**
+     * Retire le rôle du catalogue tout de suite et recharge après commit
+     */
+    public void invalidate(String roleId) {
+        Snapshot current = snapshot;
+        if (roleId != null && current.byId().containsKey(roleId)) {
+            Map<String, CatalogRole> byId = new HashMap<>(current.byId());
+            CatalogRole removed = byId.remove(roleId);
+            Map<String, CatalogRole> byCode = new HashMap<>(current.byCode());
+            byCode.remove(removed.code());
+            snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byCode));
+        }
+        clearCachedUsers();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                    // Un principal rechargé avant le commit porte encore l'ancien rôle
+                    clearCachedUsers();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Rôle absent du dernier chargement, et déjà cherché par rechargement depuis moins de missing-ttl-ms
+     */
+    public boolean isKnownMissing(String roleId) {
+        return roleId != null && missingIds.getIfPresent(roleId) != null;
+    }
+
+    public void markMissing(String roleId) {
+        if (roleId != null) {
+            missingIds.put(roleId, Boolean.TRUE);
+        }
+    }
+
+    public Optional<CatalogRole> findByCode(String code) {
+        return Optional.ofNullable(code == null ? null : snapshot.byCode().get(code));
+    }
+
+    public Optional<CatalogRole> findById(String id) {
+        return Optional.ofNullable(id == null ? null : snapshot.byId().get(id));
+    }
+
+    public Collection<CatalogRole> all() {
+        return snapshot.byId().values();
+    }
+
+    private void clearCachedUsers() {
+        if (userDetailsService.getIfAvailable() instanceof CachedUserDetailsService cache) {
+            cache.invalidateAll();
+        }
+    }
+
+    private record Snapshot(Map<String, CatalogRole> byId, Map<String, CatalogRole> byCode) {}
+
+    public record CatalogRole(
+        String id,
+        String code,
+        String name,
+        Set<String> permissions,
+        PermissionSet permissionSet,
+        PermissionSet authoritySet
+    ) {
+
+        static CatalogRole of(String id, String code, String name, Set<String> permissions) {
+            PermissionSet permissionSet = PermissionSet.of(permissions);
+            PermissionSet authoritySet = code == null ? permissionSet : permissionSet.union(PermissionSet.of(code));
+            return new CatalogRole(id, code, name, Set.copyOf(permissions), permissionSet, authoritySet);
+        }
+
+        /**
+         * Entité détachée (id renseigné) : suffit pour rattacher le rôle à un utilisateur sans requête
+         */
+        public Role toEntity() {
+            Role role = Role.builder()
+                .code(code)
+                .name(name)
+                .permissions(new HashSet<>(permissions))
+                .build();
+            role.setId(id);
+            return role;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.citycab.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool dédié aux tâches @Scheduled (index de révocation, catalogue des rôles, flux de révocation,
+ * expiration des sessions WebSocket, purge des tokens...). Sans lui, elles partageraient le
+ * scheduler du broker STOMP ou un seul thread : une purge longue retarderait les autres.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${citycab.scheduling.pool-size:4}")
+    private int poolSize;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("citycab-scheduling-");
+        scheduler.setErrorHandler(error -> log.error("Scheduled task failed", error));
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(taskScheduler());
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import com.citycab.app.enums.PrincipalMode;
+
 import lombok.Data;
 
 @Data
@@ -21,6 +23,13 @@ public class SecurityProperties {
     private String jwkSetUri;
     private String issuer;
     private int tokenValidationCacheTtl = 300;
+    // Intervalle de reconstruction de l'index de révocation (ms)
+    private long revocationRefreshMs = 60000;
+    // DATABASE : utilisateur rechargé à chaque requête, STATELESS : construit depuis le JWT
+    private PrincipalMode principalMode = PrincipalMode.DATABASE;
+    private Password password = new Password();
+    private RateLimit rateLimit = new RateLimit();
+    private UserCache userCache = new UserCache();
     // To set the default security filter chain to permitAll
     private boolean disableAutoSecurity = false;
     private List<String> publicPaths = Arrays.asList(
@@ -34,6 +43,37 @@ public class SecurityProperties {
         "/swagger-ui.html",
         "/swagger-ui/index.html",
 
+        "/.well-known/jwks.json",
+
         "/api/v1/auth/**"
     );
+
+    @Data
+    public static class Password {
+        // Coût BCrypt ; les hashes de coût inférieur sont recalculés à la connexion
+        private int bcryptStrength = 10;
+        private int hashingThreads = Runtime.getRuntime().availableProcessors();
+        private int hashingQueueCapacity = 64;
+        private long hashingTimeoutMs = 5000;
+    }
+
+    @Data
+    public static class UserCache {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        // Filet de sécurité : l'éviction normale se fait à chaque modification de l'utilisateur
+        private long ttlSeconds = 300;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        private int windowSeconds = 60;
+        // Requêtes admises par fenêtre, par adresse client et par identifiant
+        private int clientAddressLimit = 60;
+        private int identifierLimit = 10;
+        // Par compte de service authentifié (introspection, flux de révocations) : une passerelle appelle en continu
+        private int serviceLimit = 6000;
+        private long maxTrackedKeys = 100_000;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.citycab.app.config;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.citycab.app.dtos.AuthenticatedUser;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Limite par compte de service sur les endpoints réservés aux services (introspection, révocations) :
+ * une passerelle légitime y fait de nombreuses requêtes par seconde depuis une même adresse.
+ * Un appel anonyme, refusé ensuite par @PreAuthorize, reste compté sur le quota par adresse.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceRateLimitInterceptor implements HandlerInterceptor {
+
+    private final AuthRateLimiter authRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            authRateLimiter.checkClientAddress(request.getRemoteAddr());
+        } else if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            authRateLimiter.checkService(user.getUserId());
+        } else {
+            authRateLimiter.checkService(authentication.getName());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.citycab.app.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migration des anciennes lignes tokens (JWT complet dans la colonne token)
+ * vers la colonne token_hash, puis suppression de l'ancienne colonne et de son index.
+ * Sans effet si la colonne token n'existe plus.
+ * Exécutée une fois les singletons créés, avant le démarrage du serveur web :
+ * aucune requête ne lit la table pendant la migration et la suppression de la colonne.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenDigestMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${citycab.tokens.digest-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${citycab.tokens.digest-migration.batch-size:5000}")
+    private int batchSize;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !legacyColumnExists()) {
+            return;
+        }
+
+        log.info("Migrating tokens table to SHA-256 digests");
+        jdbcTemplate.execute("ALTER TABLE tokens ALTER COLUMN token DROP NOT NULL");
+
+        long migrated = 0;
+        int updated;
+        do {
+            // sha256() est disponible à partir de PostgreSQL 11 ; même encodage hex que TokenDigest
+            updated = jdbcTemplate.update(
+                "UPDATE tokens SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex') " +
+                "WHERE id IN (SELECT id FROM tokens WHERE token_hash IS NULL AND token IS NOT NULL LIMIT ?)",
+                batchSize
+            );
+            migrated += updated;
+        } while (updated > 0);
+
+        jdbcTemplate.execute("ALTER TABLE tokens DROP COLUMN token");
+        log.info("Tokens digest migration done: {} rows migrated", migrated);
+    }
+
+    private boolean legacyColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+            // Même résolution que les ALTER TABLE non qualifiés ci-dessus : le schéma courant uniquement
+            "SELECT count(*) FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'tokens' AND column_name = 'token'",
+            Integer.class
+        );
+        return count != null && count > 0;
+    }
+}
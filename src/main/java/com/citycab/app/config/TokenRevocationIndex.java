@@ -0,0 +1,142 @@
+package com.citycab.app.config;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.citycab.app.common.TokenDigest;
+import com.citycab.app.entities.UserEntity;
+import com.citycab.app.repository.TokenRepository;
+import com.citycab.app.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index en mémoire des tokens révoqués (digests SHA-256) et de la version
+ * de sécurité minimale acceptée par utilisateur.
+ * Reconstruit périodiquement depuis la base et mis à jour immédiatement
+ * par LogoutService, AuthService et UserEntityListener.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationIndex {
+
+    // Version courante pour un utilisateur désactivé ou archivé : aucun token accepté
+    private static final long BLOCKED = Long.MAX_VALUE;
+
+    private final TokenRepository tokenRepository;
+    private final UserRepository userRepository;
+
+    private final Object lock = new Object();
+
+    private volatile Set<String> revokedDigests = ConcurrentHashMap.newKeySet();
+
+    // Révocations locales survenues pendant une reconstruction
+    private Set<String> revokedSinceRefresh = new HashSet<>();
+
+    // User ID -> version de sécurité courante (seulement si > 0 ou compte bloqué)
+    private volatile Map<String, Long> securityVersions = new ConcurrentHashMap<>();
+    private Map<String, Long> securityVersionsSinceRefresh = new HashMap<>();
+
+    public boolean isRevoked(String token) {
+        return revokedDigests.contains(TokenDigest.sha256Hex(token));
+    }
+
+    public boolean isRevokedDigest(String digest) {
+        return revokedDigests.contains(digest);
+    }
+
+    public void markRevoked(String token) {
+        markRevokedDigest(TokenDigest.sha256Hex(token));
+    }
+
+    public void markRevokedDigest(String digest) {
+        synchronized (lock) {
+            revokedDigests.add(digest);
+            revokedSinceRefresh.add(digest);
+        }
+    }
+
+    /**
+     * Un token est périmé si l'utilisateur a changé d'état de sécurité depuis son émission
+     */
+    public boolean isStale(String userId, Long tokenVersion) {
+        if (userId == null) {
+            return true;
+        }
+        Long current = securityVersions.get(userId);
+        return current != null && (tokenVersion == null ? 0L : tokenVersion) < current;
+    }
+
+    /**
+     * Met à jour la version de l'utilisateur, retourne true si elle a changé
+     */
+    public boolean updateUserState(UserEntity user) {
+        long current = effectiveVersion(user);
+        synchronized (lock) {
+            Long previous = current > 0
+                ? securityVersions.put(user.getId(), current)
+                : securityVersions.remove(user.getId());
+            securityVersionsSinceRefresh.put(user.getId(), current);
+            return (previous == null ? 0L : previous) != current;
+        }
+    }
+
+    /**
+     * Version en dessous de laquelle les tokens de l'utilisateur sont refusés (Long.MAX_VALUE si compte bloqué)
+     */
+    public static long effectiveVersion(UserEntity user) {
+        return currentVersion(user.getSecurityVersion(), user.isEnabled(), user.getArchived());
+    }
+
+    @Scheduled(fixedDelayString = "${citycab.security.revocation-refresh-ms:60000}")
+    public void refresh() {
+        Set<String> rebuilt = ConcurrentHashMap.newKeySet();
+        for (String digest : tokenRepository.findAllRevokedTokenHashes()) {
+            if (digest != null) {
+                rebuilt.add(digest);
+            }
+        }
+
+        Map<String, Long> versions = new ConcurrentHashMap<>();
+        for (UserRepository.UserSecurityState state : userRepository.findUserSecurityStates()) {
+            versions.put(state.getId(), currentVersion(state.getSecurityVersion(), state.getEnabled(), state.getArchived()));
+        }
+
+        synchronized (lock) {
+            rebuilt.addAll(revokedSinceRefresh);
+            revokedSinceRefresh = new HashSet<>();
+            revokedDigests = rebuilt;
+
+            securityVersionsSinceRefresh.forEach((userId, version) -> {
+                if (version > 0) {
+                    versions.put(userId, version);
+                } else {
+                    versions.remove(userId);
+                }
+            });
+            securityVersionsSinceRefresh = new HashMap<>();
+            securityVersions = versions;
+        }
+        log.debug("Token revocation index refreshed: {} revoked tokens, {} user versions",
+            rebuilt.size(), versions.size());
+    }
+
+    private static long currentVersion(Long securityVersion, Boolean enabled, Boolean archived) {
+        if (Boolean.FALSE.equals(enabled) || Boolean.TRUE.equals(archived)) {
+            return BLOCKED;
+        }
+        return securityVersion == null ? 0L : securityVersion;
+    }
+
+    public int size() {
+        return revokedDigests.size();
+    }
+}
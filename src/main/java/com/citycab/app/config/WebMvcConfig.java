@@ -0,0 +1,25 @@
+package com.citycab.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AuthRateLimitInterceptor authRateLimitInterceptor;
+    private final ServiceRateLimitInterceptor serviceRateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Seulement les endpoints qui déclenchent du BCrypt ou des vérifications / signatures JWT
+        registry.addInterceptor(authRateLimitInterceptor)
+            .addPathPatterns("/api/v1/auth/login", "/api/v1/auth/refresh");
+        // Endpoints des services : quota par compte de service, pas celui des logins par adresse
+        registry.addInterceptor(serviceRateLimitInterceptor)
+            .addPathPatterns("/api/v1/auth/introspect", "/api/v1/auth/revocations", "/api/v1/auth/revocations/stream");
+    }
+}
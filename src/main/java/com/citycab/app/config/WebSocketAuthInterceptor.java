@@ -1,9 +1,8 @@
 package com.citycab.app.config;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -13,10 +12,13 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.citycab.app.common.PermissionSet;
 import com.citycab.app.dtos.JwtClaims;
+import com.citycab.app.enums.ConnectionType;
 import com.citycab.app.enums.UserRole;
 import com.citycab.app.exception.InvalidTokenException;
 
@@ -30,6 +32,8 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
     
     private final JwtTokenProvider jwtTokenProvider;
     private final ConnectionRegistry connectionRegistry;
+
+    private static final PermissionSet ADMIN_AUTHORITIES = PermissionSet.of(UserRole.ADMIN.name(), UserRole.ROOTADMIN.name());
     
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -42,6 +46,11 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
         
         StompCommand command = accessor.getCommand();
         
+        // Toute trame entrante (y compris heartbeat) compte comme activité
+        if (command != StompCommand.CONNECT && command != StompCommand.DISCONNECT && accessor.getSessionId() != null) {
+            connectionRegistry.updateLastActivity(accessor.getSessionId());
+        }
+        
         if (null != command) // Gérer les différentes commandes STOMP
         
         switch (command) {
@@ -51,6 +60,9 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             case SUBSCRIBE:
                 handleSubscribe(accessor);
                 break;
+            case UNSUBSCRIBE:
+                handleUnsubscribe(accessor);
+                break;
             case DISCONNECT:
                 handleDisconnect(accessor);
                 break;
@@ -83,7 +95,7 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             // Enregistrer la connexion
             String sessionId = accessor.getSessionId();
             String userId = claims.getUserId();
-            String userType = claims.getUserType();
+            UserRole userType = parseUserType(claims.getUserType());
             String cityId = claims.getCityId();
             String countryCode = claims.getCountryCode();
             
@@ -124,11 +136,18 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
         Authentication auth = getAuthentication(accessor);
         String userId = auth.getName();
 
-        connectionRegistry.addSubscription(sessionId, userId, destination);
+        connectionRegistry.addSubscription(sessionId, userId, accessor.getSubscriptionId(), destination);
         
         log.debug("User {} subscribed to {}", userId, destination);
     }
     
+    private void handleUnsubscribe(StompHeaderAccessor accessor) {
+        String sessionId = accessor.getSessionId();
+        if (sessionId != null) {
+            connectionRegistry.removeSubscription(sessionId, accessor.getSubscriptionId());
+        }
+    }
+    
     private void handleDisconnect(StompHeaderAccessor accessor) {
         String sessionId = accessor.getSessionId();
         if (sessionId != null) {
@@ -181,12 +200,8 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
         String username = claims.getUsername();
         String userId = claims.getUserId();
         
-        // Convertir les authorities du JWT en SimpleGrantedAuthority
-        Set<SimpleGrantedAuthority> authorities = claims.getAuthorities().stream()
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toSet());
-        
-        // Ajouter le rôle comme authority
+        // Authorities partagées du registre, plus le rôle
+        List<GrantedAuthority> authorities = new ArrayList<>(claims.getPermissionSet().authorities());
         authorities.add(new SimpleGrantedAuthority("ROLE_" + claims.getUserType()));
         
         // Créer un token d'authentification avec les claims
@@ -245,24 +260,34 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
     }
     
     private boolean isAdmin(JwtClaims claims) {
-        return claims.getAuthorities().stream()
-            .anyMatch(auth -> auth.contains("ADMIN") || auth.contains("ROOTADMIN"));
+        return claims.getPermissionSet().containsAny(ADMIN_AUTHORITIES);
     }
     
     private String extractIdFromDestination(String destination, String prefix) {
         return destination.substring(prefix.length());
     }
     
-    private String getConnectionType(StompHeaderAccessor accessor) {
+    private ConnectionType getConnectionType(StompHeaderAccessor accessor) {
         String userAgent = accessor.getFirstNativeHeader("User-Agent");
         if (userAgent != null) {
             if (userAgent.contains("Android") || userAgent.contains("iOS")) {
-                return "MOBILE";
+                return ConnectionType.MOBILE;
             } else if (userAgent.contains("Postman") || userAgent.contains("curl")) {
-                return "TEST";
+                return ConnectionType.TEST;
             }
         }
-        return "WEB";
+        return ConnectionType.WEB;
+    }
+    
+    private UserRole parseUserType(String userType) {
+        if (userType == null) {
+            return null;
+        }
+        try {
+            return UserRole.valueOf(userType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
     
     @Override
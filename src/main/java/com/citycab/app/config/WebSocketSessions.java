@@ -0,0 +1,62 @@
+package com.citycab.app.config;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connexions WebSocket ouvertes, par id de session (le même que le simpSessionId STOMP).
+ * Permet de fermer la connexion réelle d'une session que le serveur a retirée du registre :
+ * le client est alors averti et se reconnecte au lieu d'écouter une session orpheline.
+ */
+@Slf4j
+@Component
+public class WebSocketSessions implements WebSocketHandlerDecoratorFactory {
+
+    private final ConcurrentMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId(), session);
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Ferme la connexion si elle est encore ouverte ; la déconnexion STOMP suit (SessionDisconnectEvent)
+     */
+    public void close(String sessionId, CloseStatus status) {
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(status);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not close WebSocket session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -10,16 +10,25 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.citycab.app.docs.AuthApi;
 import com.citycab.app.dtos.AuthResponse;
+import com.citycab.app.dtos.IntrospectionRequest;
+import com.citycab.app.dtos.IntrospectionResult;
 import com.citycab.app.dtos.JwtClaims;
 import com.citycab.app.dtos.LoginRequest;
+import com.citycab.app.dtos.RevocationFeedResponse;
 import com.citycab.app.dtos.TokenResponse;
 import com.citycab.app.services.AuthService;
+import com.citycab.app.services.RevocationFeedService;
+import com.citycab.app.services.TokenIntrospectionService;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -28,6 +37,8 @@ import com.citycab.app.services.AuthService;
 public class AuthController implements AuthApi {
     
     private final AuthService authService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final RevocationFeedService revocationFeedService;
 
     @Override
     @PostMapping("/login")
@@ -59,5 +70,34 @@ public class AuthController implements AuthApi {
     @GetMapping("/validate")
     public ResponseEntity<JwtClaims> validateToken(@RequestParam String token) {
         return ResponseEntity.ok(authService.validateToken(token));
+    }
+
+    @Override
+    @PostMapping("/introspect")
+    @PreAuthorize("hasAnyAuthority('ROOTADMIN', 'SERVICE')")
+    public ResponseEntity<List<IntrospectionResult>> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(request.getTokens()));
+    }
+
+    @Override
+    @GetMapping("/revocations")
+    @PreAuthorize("hasAnyAuthority('ROOTADMIN', 'SERVICE')")
+    public ResponseEntity<RevocationFeedResponse> revocations(
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "1000") int limit
+    ) {
+        return ResponseEntity.ok(revocationFeedService.poll(after, limit));
+    }
+
+    @Override
+    @GetMapping(value = "/revocations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyAuthority('ROOTADMIN', 'SERVICE')")
+    public SseEmitter revocationStream(
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        // Reconnexion automatique du navigateur / client SSE : reprise au dernier événement reçu
+        long cursor = after != null ? after : lastEventId != null ? lastEventId : 0L;
+        return revocationFeedService.subscribe(cursor);
     }   
 }
@@ -0,0 +1,46 @@
+package com.citycab.app.controllers;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.citycab.app.config.JwtKeyRing;
+import com.citycab.app.config.JwtSigningProperties;
+import com.citycab.app.docs.JwksApi;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Publication des clés de signature JWT")
+public class JwksController implements JwksApi {
+
+    private final JwtKeyRing jwtKeyRing;
+    private final JwtSigningProperties signingProperties;
+
+    @Override
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        JwtKeyRing.JwksDocument document = jwtKeyRing.jwksDocument();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(signingProperties.getJwksMaxAgeSeconds())).cachePublic();
+
+        if (document.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(document.etag())
+                .cacheControl(cacheControl)
+                .build();
+        }
+        // Octets pré-calculés à la rotation : aucune sérialisation par requête
+        return ResponseEntity.ok()
+            .eTag(document.etag())
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(document.body());
+    }
+}
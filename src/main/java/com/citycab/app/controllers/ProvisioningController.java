@@ -0,0 +1,36 @@
+package com.citycab.app.controllers;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import com.citycab.app.config.AssignableRoles;
+import com.citycab.app.docs.ProvisioningApi;
+import com.citycab.app.dtos.BulkProvisionRequest;
+import com.citycab.app.dtos.BulkProvisionResponse;
+import com.citycab.app.services.ProvisioningService;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+@Tag(name = "Provisioning", description = "Création de comptes en masse")
+public class ProvisioningController implements ProvisioningApi {
+
+    private final ProvisioningService provisioningService;
+
+    @Override
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyAuthority('ROOTADMIN', 'ADMIN')")
+    public ResponseEntity<BulkProvisionResponse> provision(
+        @Valid @RequestBody BulkProvisionRequest request,
+        Authentication authentication
+    ) {
+        return ResponseEntity.ok(provisioningService.provision(request, AssignableRoles.of(authentication)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.citycab.app.controllers;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import com.citycab.app.config.AssignableRoles;
+import com.citycab.app.docs.UserImportApi;
+import com.citycab.app.dtos.ImportProgress;
+import com.citycab.app.dtos.ImportRowError;
+import com.citycab.app.enums.ImportFormat;
+import com.citycab.app.services.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+@Tag(name = "Provisioning", description = "Création de comptes en masse")
+public class UserImportController implements UserImportApi {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UserImportService userImportService;
+
+    @Override
+    @PostMapping(value = "/import", consumes = { "text/csv", MediaType.APPLICATION_JSON_VALUE, NDJSON }, produces = NDJSON)
+    // Hash déjà calculés : l'appelant connaît les mots de passe, ROOTADMIN seulement
+    @PreAuthorize("hasAuthority('ROOTADMIN') or (hasAuthority('ADMIN') and !#passwordsHashed)")
+    public void importUsers(
+        @RequestParam(defaultValue = "false") boolean passwordsHashed,
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Authentication authentication
+    ) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+            ? ImportFormat.CSV
+            : ImportFormat.JSON;
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            body = new GZIPInputStream(body, 64 * 1024);
+        }
+
+        // Une ligne JSON par événement, envoyée au fil de l'import : erreurs puis avancement après chaque lot
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        AssignableRoles caller = AssignableRoles.of(authentication);
+        ImportProgress summary = userImportService.importUsers(body, format, passwordsHashed, caller, new UserImportService.ImportListener() {
+            @Override
+            public void onRowError(ImportRowError error) {
+                write(out, error, false);
+            }
+
+            @Override
+            public void onProgress(ImportProgress progress) {
+                write(out, progress, true);
+            }
+        });
+        write(out, summary, true);
+    }
+
+    private static void write(OutputStream out, Object event, boolean flush) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client déconnecté : inutile de poursuivre l'import
+            throw new UncheckedIOException(e);
+        }
+    }
+}
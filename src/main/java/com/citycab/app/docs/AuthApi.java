@@ -9,14 +9,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.citycab.app.dtos.AuthResponse;
+import com.citycab.app.dtos.IntrospectionRequest;
+import com.citycab.app.dtos.IntrospectionResult;
 import com.citycab.app.dtos.JwtClaims;
 import com.citycab.app.dtos.LoginRequest;
+import com.citycab.app.dtos.RevocationFeedResponse;
 import com.citycab.app.dtos.TokenResponse;
 
 @RestController
@@ -63,4 +69,40 @@ public interface AuthApi {
     })
     @GetMapping("/validate")
     public ResponseEntity<JwtClaims> validateToken(@RequestParam String token);
+
+    @Operation(summary = "Introspection d'un lot de tokens")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Un verdict par token, dans l'ordre reçu"),
+        @ApiResponse(responseCode = "400", description = "Lot vide ou trop grand"),
+        @ApiResponse(responseCode = "401", description = "Appelant non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Réservé aux comptes de service (SERVICE) et au ROOTADMIN"),
+        @ApiResponse(responseCode = "503", description = "Pool de vérification saturé, réessayer")
+    })
+    @PostMapping("/introspect")
+    public ResponseEntity<List<IntrospectionResult>> introspect(@Valid @RequestBody IntrospectionRequest request);
+
+    @Operation(summary = "Flux de révocation (polling incrémental)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Événements de numéro strictement supérieur à after"),
+        @ApiResponse(responseCode = "401", description = "Appelant non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Réservé aux comptes de service (SERVICE) et au ROOTADMIN")
+    })
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationFeedResponse> revocations(
+        @RequestParam(defaultValue = "0") long after,
+        @RequestParam(defaultValue = "1000") int limit
+    );
+
+    @Operation(summary = "Flux de révocation (Server-Sent Events)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Flux ouvert, reprise possible via Last-Event-ID"),
+        @ApiResponse(responseCode = "401", description = "Appelant non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Réservé aux comptes de service (SERVICE) et au ROOTADMIN"),
+        @ApiResponse(responseCode = "503", description = "Nombre maximal d'abonnés atteint, réessayer")
+    })
+    @GetMapping(value = "/revocations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter revocationStream(
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    );
 }
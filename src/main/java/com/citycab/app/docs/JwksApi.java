@@ -0,0 +1,22 @@
+package com.citycab.app.docs;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Tag(name = "Keys", description = "Publication des clés de signature JWT")
+public interface JwksApi {
+
+    @Operation(summary = "Clés publiques de vérification (JWKS)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Document JWKS"),
+        @ApiResponse(responseCode = "304", description = "Document inchangé (ETag)")
+    })
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch);
+}
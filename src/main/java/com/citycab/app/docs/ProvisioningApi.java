@@ -0,0 +1,33 @@
+package com.citycab.app.docs;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import com.citycab.app.dtos.BulkProvisionRequest;
+import com.citycab.app.dtos.BulkProvisionResponse;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@Tag(name = "Provisioning", description = "Création de comptes en masse")
+public interface ProvisioningApi {
+
+    @Operation(summary = "Créer un lot de comptes (onboarding d'une flotte)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lot traité, résultat par ligne (rôle ou type au-dessus de l'appelant : FAILED)"),
+        @ApiResponse(responseCode = "400", description = "Lot invalide"),
+        @ApiResponse(responseCode = "403", description = "Réservé aux administrateurs")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProvisionResponse> provision(
+        @Valid @RequestBody BulkProvisionRequest request,
+        @Parameter(hidden = true) Authentication authentication
+    );
+}
@@ -0,0 +1,38 @@
+package com.citycab.app.docs;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@Tag(name = "Provisioning", description = "Création de comptes en masse")
+public interface UserImportApi {
+
+    @Operation(
+        summary = "Importer un fichier de comptes (CSV avec en-tête, tableau JSON ou NDJSON, gzip accepté)",
+        description = "Réponse NDJSON en flux : une ligne par erreur, une ligne d'avancement par lot, puis le bilan"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Import traité, erreurs ligne à ligne dans le flux (rôle ou type au-dessus de l'appelant compris)"),
+        @ApiResponse(responseCode = "400", description = "En-tête CSV ou JSON invalide"),
+        @ApiResponse(responseCode = "403", description = "Réservé aux administrateurs ; passwordsHashed réservé au ROOTADMIN")
+    })
+    @PostMapping("/import")
+    public void importUsers(
+        @Parameter(description = "Les mots de passe sont déjà des hash BCrypt (ROOTADMIN seulement)") @RequestParam(defaultValue = "false") boolean passwordsHashed,
+        @Parameter(hidden = true) HttpServletRequest request,
+        @Parameter(hidden = true) HttpServletResponse response,
+        @Parameter(hidden = true) Authentication authentication
+    ) throws IOException;
+}
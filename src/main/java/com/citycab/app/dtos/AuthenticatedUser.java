@@ -0,0 +1,54 @@
+package com.citycab.app.dtos;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.citycab.app.common.PermissionSet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Principal léger, sans graphe d'entités : construit à partir des claims d'un
+ * access token, ou de la projection d'authentification (UserRepository.findActiveAuthRows).
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class AuthenticatedUser implements UserDetails {
+
+    private final String userId;
+    private final String username;
+    // Hash BCrypt, renseigné seulement quand le principal vient de la base
+    private final String password;
+    private final String userType;
+    private final String cityId;
+    private final String city;
+    private final String countryCode;
+    private final long securityVersion;
+    private final Set<String> roles;
+    private final PermissionSet permissionSet;
+
+    public static AuthenticatedUser fromClaims(JwtClaims claims) {
+        return AuthenticatedUser.builder()
+            .userId(claims.getUserId())
+            .username(claims.getUsername())
+            .userType(claims.getUserType())
+            .cityId(claims.getCityId())
+            .city(claims.getCity())
+            .countryCode(claims.getCountryCode())
+            .securityVersion(claims.getSecurityVersion() == null ? 0L : claims.getSecurityVersion())
+            .roles(claims.getRoles() == null ? Set.of() : claims.getRoles())
+            .permissionSet(claims.getPermissionSet())
+            .build();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return permissionSet.authorities();
+    }
+}
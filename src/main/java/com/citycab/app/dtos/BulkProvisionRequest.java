@@ -0,0 +1,19 @@
+package com.citycab.app.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkProvisionRequest {
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid ProvisionUserRequest> users;
+
+    // Émettre directement access + refresh token pour chaque compte créé
+    private boolean issueTokens = true;
+}
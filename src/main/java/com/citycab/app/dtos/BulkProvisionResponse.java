@@ -0,0 +1,17 @@
+package com.citycab.app.dtos;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkProvisionResponse {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private long durationMs;
+    private List<ProvisionResult> results;
+}
@@ -0,0 +1,19 @@
+package com.citycab.app.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Avancement d'un import, émis après chaque lot ("progress") puis une dernière fois ("summary")
+ */
+@Data
+@Builder
+public class ImportProgress {
+
+    private String type;
+    private long processed;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,19 @@
+package com.citycab.app.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowError {
+
+    @Builder.Default
+    private String type = "error";
+    // Ligne du fichier source (CSV) ou position de l'enregistrement (JSON)
+    private long line;
+    private String email;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.citycab.app.dtos;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class IntrospectionRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotBlank String> tokens;
+}
@@ -0,0 +1,54 @@
+package com.citycab.app.dtos;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection compacte d'un token introspecté : seulement ce dont une gateway a besoin
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionResult {
+
+    private boolean active;
+    private String userId;
+    private String username;
+    private String userType;
+    private String cityId;
+    private String countryCode;
+    private Set<String> authorities;
+    private Long exp;
+    // Version de sécurité du token, pour le contrôle de révocation (non sérialisée)
+    @JsonIgnore
+    private Long securityVersion;
+    // Motif du refus quand active = false
+    private String reason;
+
+    public static IntrospectionResult inactive(String reason) {
+        return IntrospectionResult.builder().active(false).reason(reason).build();
+    }
+
+    public static IntrospectionResult fromClaims(JwtClaims claims) {
+        return IntrospectionResult.builder()
+            .active(true)
+            .userId(claims.getUserId())
+            .username(claims.getUsername())
+            .userType(claims.getUserType())
+            .cityId(claims.getCityId())
+            .countryCode(claims.getCountryCode())
+            .authorities(claims.getAuthorities())
+            .exp(claims.getExp())
+            .securityVersion(claims.getSecurityVersion())
+            .build();
+    }
+}
@@ -3,10 +3,16 @@ package com.citycab.app.dtos;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.citycab.app.common.PermissionSet;
+import com.citycab.app.entities.UserEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -28,4 +34,54 @@ public class JwtClaims {
     private String countryCode;
     private String city;
     private String cityId;
+    // Version de sécurité de l'utilisateur au moment de l'émission (claim sv)
+    private Long securityVersion;
+
+    // Bitset des authorities, compilé au premier test (non sérialisé)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient PermissionSet permissionSet;
+
+    public PermissionSet getPermissionSet() {
+        PermissionSet compiled = permissionSet;
+        if (compiled == null) {
+            compiled = PermissionSet.of(authorities);
+            permissionSet = compiled;
+        }
+        return compiled;
+    }
+
+    public void setAuthorities(Set<String> authorities) {
+        this.authorities = authorities;
+        this.permissionSet = null;
+    }
+
+    public static JwtClaims fromPrincipal(AuthenticatedUser user) {
+        return JwtClaims.builder()
+            .userId(user.getUserId())
+            .username(user.getUsername())
+            .roles(user.getRoles())
+            .countryCode(user.getCountryCode())
+            .cityId(user.getCityId())
+            .city(user.getCity())
+            .userType(user.getUserType())
+            .authorities(user.getPermissionSet().names())
+            .securityVersion(user.getSecurityVersion())
+            .build();
+    }
+
+    public static JwtClaims fromEntity(UserEntity user) {
+        return JwtClaims.builder()
+            .userId(user.getId())
+            .username(user.getIdentifier())
+            .roles(user.getRoleCodes())
+            .countryCode(user.getCountryCode())
+            .cityId(user.getCityId())
+            .city(user.getCity())
+            .userType(user.getUserType().name())
+            .authorities(user.getAuthorityStrings())
+            .securityVersion(user.getSecurityVersion())
+            .build();
+    }
 }
\ No newline at end of file
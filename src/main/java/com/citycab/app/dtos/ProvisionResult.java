@@ -0,0 +1,23 @@
+package com.citycab.app.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProvisionResult {
+
+    public enum Status { CREATED, DUPLICATE, FAILED }
+
+    // Position de la ligne dans le lot reçu
+    private int index;
+    private String email;
+    private Status status;
+    private String userId;
+    private String accessToken;
+    private String refreshToken;
+    private String error;
+}
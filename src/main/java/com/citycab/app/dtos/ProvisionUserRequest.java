@@ -0,0 +1,35 @@
+package com.citycab.app.dtos;
+
+import com.citycab.app.enums.UserRole;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ProvisionUserRequest {
+
+    @NotBlank
+    @Email
+    private String email;
+
+    // BCrypt ne hache que les 72 premiers octets et refuse au-delà
+    @NotBlank
+    @Size(max = 72)
+    private String password;
+
+    private String phone;
+    private String firstName;
+    private String lastName;
+
+    private UserRole userType = UserRole.DRIVER;
+    // Code du rôle à attribuer (ex: DRIVER), optionnel
+    private String roleCode;
+
+    @NotBlank
+    private String countryCode;
+    private String city;
+    @NotBlank
+    private String cityId;
+}
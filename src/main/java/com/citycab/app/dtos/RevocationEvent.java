@@ -0,0 +1,40 @@
+package com.citycab.app.dtos;
+
+import com.citycab.app.entities.RevocationEventEntity;
+import com.citycab.app.enums.RevocationType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Événement du flux de révocation ; exp en secondes epoch, date à laquelle
+ * le consommateur peut l'oublier
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RevocationEvent {
+
+    private long seq;
+    private RevocationType type;
+    private String tokenHash;
+    private String userId;
+    private Long securityVersion;
+    private long exp;
+
+    public static RevocationEvent fromEntity(RevocationEventEntity entity) {
+        return RevocationEvent.builder()
+            .seq(entity.getFeedPosition())
+            .type(entity.getType())
+            .tokenHash(entity.getTokenHash())
+            .userId(entity.getUserId())
+            .securityVersion(entity.getSecurityVersion())
+            .exp(entity.getExpiresAt().getEpochSecond())
+            .build();
+    }
+}
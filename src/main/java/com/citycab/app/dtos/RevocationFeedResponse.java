@@ -0,0 +1,20 @@
+package com.citycab.app.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationFeedResponse {
+
+    private List<RevocationEvent> events;
+    // À repasser en paramètre after au prochain appel
+    private long cursor;
+    private boolean hasMore;
+}
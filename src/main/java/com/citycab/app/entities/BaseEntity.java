@@ -13,7 +13,10 @@ import lombok.experimental.SuperBuilder;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.citycab.app.common.IdGenerators;
 
 @Getter
 @Setter
@@ -27,6 +30,9 @@ public abstract class BaseEntity {
     @Column(length = 100, updatable = false, nullable = false)
     protected String id;
 
+    // Un formatter par motif, construit une seule fois
+    private static final Map<String, DateTimeFormatter> DATE_FORMATTERS = new ConcurrentHashMap<>();
+
     // Chaque classe enfant doit fournir son préfixe
     protected abstract String getPrefix();
 
@@ -40,7 +46,7 @@ public abstract class BaseEntity {
     }
 
     protected int getRandomPartLength() {
-        return 10; // longueur par défaut de la partie aléatoire
+        return 10; // longueur par défaut de la partie aléatoire (16 au maximum)
     }
 
     protected String getDateFormat() {
@@ -50,19 +56,25 @@ public abstract class BaseEntity {
     @PrePersist
     protected void generateId() {
         if (this.id == null) {
-            String separator = getIdSeparator();
-            String randomPart = UUID.randomUUID().toString().replace("-", "").substring(0, getRandomPartLength());
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(getPrefix()).append(separator).append(randomPart);
+            this.id = buildId();
+        }
+    }
 
-            if (includeDateInId()) {
-                String datePart = LocalDateTime.now().format(DateTimeFormatter.ofPattern(getDateFormat()));
-                sb.append(separator).append(datePart);
-            }
+    /**
+     * Préfixe de l'entité + identifiant ordonné dans le temps (IdGenerators).
+     * Exposé pour les imports qui attribuent les ids avant insertion.
+     */
+    public String buildId() {
+        String separator = getIdSeparator();
+        StringBuilder sb = new StringBuilder(48);
+        sb.append(getPrefix()).append(separator).append(IdGenerators.get().nextId(getRandomPartLength()));
 
-            this.id = sb.toString();
+        if (includeDateInId()) {
+            DateTimeFormatter formatter = DATE_FORMATTERS.computeIfAbsent(getDateFormat(), DateTimeFormatter::ofPattern);
+            sb.append(separator).append(LocalDateTime.now().format(formatter));
         }
+
+        return sb.toString();
     }
 
     public String getId() {
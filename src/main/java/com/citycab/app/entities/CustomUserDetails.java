@@ -3,11 +3,11 @@ package com.citycab.app.entities;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.citycab.app.common.PermissionSet;
+
 public interface CustomUserDetails extends UserDetails {
     
     // Méthodes à implémenter dans UserEntity
@@ -22,28 +22,40 @@ public interface CustomUserDetails extends UserDetails {
         return "USER"; // Rôle par défaut
     }
 
-    // Methode par defaut
-    default Set<String> getAuthorityStrings() {
-        return getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.toSet());
+    /**
+     * Codes de rôle et permissions ; UserEntity garde le résultat en cache
+     */
+    default PermissionSet getAuthoritySet() {
+        PermissionSet authorities = PermissionSet.EMPTY;
+        Set<Role> userRoles = getRoles();
+        if (userRoles != null) {
+            for (Role role : userRoles) {
+                authorities = authorities.union(role.getAuthoritySet());
+            }
+        }
+        return authorities;
     }
 
-    default Set<String> getPermissions() {
-        Set<String> permissions = new HashSet<>();
-        
+    default PermissionSet getPermissionSet() {
+        PermissionSet permissions = PermissionSet.EMPTY;
         Set<Role> userRoles = getRoles();
         if (userRoles != null) {
             for (Role role : userRoles) {
-                if (role.getPermissions() != null) {
-                    permissions.addAll(role.getPermissions());
-                }
+                permissions = permissions.union(role.getPermissionSet());
             }
         }
-        
         return permissions;
     }
 
+    // Methode par defaut
+    default Set<String> getAuthorityStrings() {
+        return getAuthoritySet().names();
+    }
+
+    default Set<String> getPermissions() {
+        return getPermissionSet().names();
+    }
+
     default Set<String> getRoleCodes() {
         Set<String> roleCodes = new HashSet<>();
 
@@ -60,10 +72,7 @@ public interface CustomUserDetails extends UserDetails {
     }
 
     default boolean hasAuthority(String authority) {
-        if (authority == null || authority.isBlank()) return false;
-        
-        return getAuthorities().stream()
-            .anyMatch(auth -> authority.equals(auth.getAuthority()));
+        return getAuthoritySet().contains(authority);
     }
 
     default boolean hasRole(String roleCode) {
@@ -79,15 +88,6 @@ public interface CustomUserDetails extends UserDetails {
 
     // Vérifie si l'utilisateur a un rôle avec des permissions spécifiques
     default boolean hasPermission(String permission) {
-        if (permission == null || permission.isBlank()) return false;
-        
-        Set<Role> userRoles = getRoles();
-        if (userRoles != null) {
-            return userRoles.stream()
-                .anyMatch(role -> role.getPermissions() != null && 
-                    role.getPermissions().contains(permission));
-        }
-        
-        return false;
+        return getPermissionSet().contains(permission);
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.citycab.app.entities;
+
+import java.time.Instant;
+
+import com.citycab.app.enums.RevocationType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entrée du flux de révocation. Les consommateurs reprennent le flux à partir de la
+ * dernière position reçue ; la position est attribuée après commit, dans l'ordre des commits.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "revocation_events", indexes = @Index(name = "idx_revocation_events_expires_at", columnList = "expires_at"))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long sequence;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private RevocationType type;
+
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", length = 100)
+    private String userId;
+
+    @Column(name = "security_version")
+    private Long securityVersion;
+
+    // Null tant que RevocationFeedService ne l'a pas publiée : une position n'apparaît
+    // jamais sous une position déjà visible, contrairement à la séquence IDENTITY
+    @Column(name = "feed_position", unique = true)
+    private Long feedPosition;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Au-delà, plus aucun token concerné n'est valide : l'événement peut être purgé
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
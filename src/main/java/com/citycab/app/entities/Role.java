@@ -5,6 +5,8 @@ import java.util.Set;
 
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import com.citycab.app.common.PermissionSet;
+
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -12,7 +14,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -26,7 +31,7 @@ import lombok.Setter;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, RoleEntityListener.class})
 public class Role extends AuditableEntity{
     
     @Column(unique = true, nullable = false)
@@ -37,12 +42,64 @@ public class Role extends AuditableEntity{
 
     private String description;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // LAZY : le chemin d'authentification lit les permissions dans RoleCatalog (AuthPrincipalLoader)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "role_permissions", joinColumns = @JoinColumn(name = "role_id"))
     @Column(name = "permission")
     @Builder.Default
     private Set<String> permissions = new HashSet<>();
 
+    // Bitsets compilés à la demande, remis à zéro quand le code ou les permissions changent
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient PermissionSet permissionSet;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient PermissionSet authoritySet;
+
+    /**
+     * Permissions du rôle, compilées depuis sa propre collection
+     */
+    public PermissionSet getPermissionSet() {
+        PermissionSet compiled = permissionSet;
+        if (compiled == null) {
+            compiled = PermissionSet.of(permissions);
+            permissionSet = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Code du rôle et ses permissions : les authorities Spring Security du rôle
+     */
+    public PermissionSet getAuthoritySet() {
+        PermissionSet compiled = authoritySet;
+        if (compiled == null) {
+            compiled = getPermissionSet().union(code == null ? PermissionSet.EMPTY : PermissionSet.of(code));
+            authoritySet = compiled;
+        }
+        return compiled;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+        this.authoritySet = null;
+    }
+
+    public void setPermissions(Set<String> permissions) {
+        this.permissions = permissions;
+        invalidatePermissionSets();
+    }
+
+    // La collection peut être modifiée en place : on recompile après chaque écriture
+    @PostPersist
+    @PostUpdate
+    protected void invalidatePermissionSets() {
+        this.permissionSet = null;
+        this.authoritySet = null;
+    }
+
     @Override
     protected String getPrefix() {
         return "ROLE";
@@ -0,0 +1,29 @@
+package com.citycab.app.entities;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.citycab.app.config.RoleCatalog;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Invalide le catalogue des rôles quand un Role est créé, modifié ou supprimé.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoleEntityListener {
+
+    // Résolution paresseuse : le listener est créé avec l'EntityManagerFactory
+    private final ObjectProvider<RoleCatalog> roleCatalog;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRoleChange(Role role) {
+        roleCatalog.ifAvailable(catalog -> catalog.invalidate(role.getId()));
+    }
+}
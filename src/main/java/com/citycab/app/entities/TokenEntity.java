@@ -1,5 +1,7 @@
 package com.citycab.app.entities;
 
+import java.time.Instant;
+
 import com.citycab.app.enums.TokenType;
 
 import jakarta.persistence.Column;
@@ -23,8 +25,9 @@ import lombok.Setter;
 @AllArgsConstructor
 public class TokenEntity extends BaseEntity{
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // Digest SHA-256 (hex) du JWT : index de taille fixe au lieu du token complet
+    @Column(name = "token_hash", unique = true, length = 64)
+    private String tokenHash;
 
     @Builder.Default
     private TokenType tokenType = TokenType.BEARER;
@@ -34,6 +37,10 @@ public class TokenEntity extends BaseEntity{
 
     @Column(nullable = false)
     private boolean expired;
+
+    // Expiration du JWT : borne de purge et clé de partitionnement de la table
+    @Column(name = "expires_at")
+    private Instant expiresAt;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -2,12 +2,13 @@ package com.citycab.app.entities;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import com.citycab.app.common.PermissionSet;
 import com.citycab.app.enums.SocialNetworkAuthProvider;
 import com.citycab.app.enums.UserRole;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -15,12 +16,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -37,6 +40,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)  
+@EntityListeners(UserEntityListener.class)
 public class UserEntity extends AuditableEntity implements CustomUserDetails{
     
     @Column(unique = true, nullable = false)
@@ -100,6 +104,20 @@ public class UserEntity extends AuditableEntity implements CustomUserDetails{
     private String countryCode;
     private String city;
     private String cityId;
+
+    // Incrémentée à chaque changement d'état de sécurité : invalide les tokens émis avant
+    @Column(nullable = false)
+    @Builder.Default
+    private long securityVersion = 0L;
+
+    // Union des bitsets des rôles, recalculée quand les rôles changent
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient PermissionSet permissionSet;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient PermissionSet authoritySet;
     
     public String getDisplayName() {
         if (this.firstName != null && !this.firstName.isBlank() && this.lastName != null && !this.lastName.isBlank()) {
@@ -116,24 +134,62 @@ public class UserEntity extends AuditableEntity implements CustomUserDetails{
     
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<SimpleGrantedAuthority> authorities = new HashSet<>();
-        
-        // 2. Ajouter les rôles de la table roles
-        if (this.roles != null) {
-            for (Role role : this.roles) {
-                // Ajouter le code du rôle (ex: ROOTADMIN, ADMIN)
-                authorities.add(new SimpleGrantedAuthority(role.getCode()));
-                
-                // Ajouter toutes les permissions du rôle
-                if (role.getPermissions() != null) {
-                    for (String permission : role.getPermissions()) {
-                        authorities.add(new SimpleGrantedAuthority(permission));
-                    }
-                }
-            }
+        // Codes de rôle + permissions, liste partagée calculée une fois
+        return getAuthoritySet().authorities();
+    }
+
+    @Override
+    public PermissionSet getAuthoritySet() {
+        PermissionSet compiled = authoritySet;
+        if (compiled == null) {
+            compiled = CustomUserDetails.super.getAuthoritySet();
+            authoritySet = compiled;
         }
-        
-        return authorities;
+        return compiled;
+    }
+
+    @Override
+    public PermissionSet getPermissionSet() {
+        PermissionSet compiled = permissionSet;
+        if (compiled == null) {
+            compiled = CustomUserDetails.super.getPermissionSet();
+            permissionSet = compiled;
+        }
+        return compiled;
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        invalidatePermissionSets();
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            this.securityVersion++;
+        }
+    }
+
+    public void setArchived(Boolean archived) {
+        if (!Objects.equals(this.archived, archived)) {
+            this.archived = archived;
+            this.securityVersion++;
+        }
+    }
+
+    public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) {
+            this.password = password;
+            this.securityVersion++;
+        }
+    }
+
+    /**
+     * Remplace le hash par un hash du même mot de passe (coût BCrypt relevé) :
+     * les tokens existants restent valides
+     */
+    public void upgradePasswordHash(String encodedPassword) {
+        this.password = encodedPassword;
     }
 
     @Override
@@ -178,15 +234,7 @@ public class UserEntity extends AuditableEntity implements CustomUserDetails{
 
 
     public boolean hasPermission(String permission) {
-        if (permission == null) return false;
-        
-        if (this.roles != null) {
-            return this.roles.stream()
-                .anyMatch(role -> role.getPermissions() != null && 
-                    role.getPermissions().contains(permission));
-        }
-        
-        return false;
+        return getPermissionSet().contains(permission);
     }
     
     /**
@@ -196,15 +244,19 @@ public class UserEntity extends AuditableEntity implements CustomUserDetails{
         if (this.roles == null) {
             this.roles = new HashSet<>();
         }
-        this.roles.add(role);
+        if (this.roles.add(role)) {
+            this.securityVersion++;
+            invalidatePermissionSets();
+        }
     }
     
     /**
      * Retire un rôle de l'utilisateur
      */
     public void removeRole(Role role) {
-        if (this.roles != null) {
-            this.roles.remove(role);
+        if (this.roles != null && this.roles.remove(role)) {
+            this.securityVersion++;
+            invalidatePermissionSets();
         }
     }
     
@@ -212,17 +264,12 @@ public class UserEntity extends AuditableEntity implements CustomUserDetails{
      * Retourne tous les codes de permission de l'utilisateur
      */
     public Set<String> getAllPermissions() {
-        Set<String> allPermissions = new HashSet<>();
-        
-        if (this.roles != null) {
-            for (Role role : this.roles) {
-                if (role.getPermissions() != null) {
-                    allPermissions.addAll(role.getPermissions());
-                }
-            }
-        }
-        
-        return allPermissions;
+        return getPermissionSet().names();
+    }
+
+    private void invalidatePermissionSets() {
+        this.permissionSet = null;
+        this.authoritySet = null;
     }
     
     /**
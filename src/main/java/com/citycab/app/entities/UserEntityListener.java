@@ -0,0 +1,60 @@
+package com.citycab.app.entities;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.citycab.app.config.CachedUserDetailsService;
+import com.citycab.app.config.TokenRevocationIndex;
+import com.citycab.app.events.UserSecurityChangedEvent;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Propage les changements d'état de sécurité d'un utilisateur vers les index en mémoire.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    // Résolution paresseuse : le listener est créé avec l'EntityManagerFactory
+    private final ObjectProvider<TokenRevocationIndex> revocationIndex;
+    private final ObjectProvider<ApplicationEventPublisher> eventPublisher;
+    private final ObjectProvider<UserDetailsService> userDetailsService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSecurityStateChange(UserEntity user) {
+        evictCachedDetails(user);
+        TokenRevocationIndex index = revocationIndex.getIfAvailable();
+        if (index != null && index.updateUserState(user)) {
+            eventPublisher.ifAvailable(publisher -> publisher.publishEvent(
+                new UserSecurityChangedEvent(user.getId(), TokenRevocationIndex.effectiveVersion(user))));
+        }
+    }
+
+    // Toute écriture évince : l'entrée en cache porte le hash, les flags et les rôles.
+    // Au flush, une lecture concurrente peut encore recharger l'ancienne ligne : éviction répétée après commit.
+    @PostRemove
+    public void evictCachedDetails(UserEntity user) {
+        if (!(userDetailsService.getIfAvailable() instanceof CachedUserDetailsService cache)) {
+            return;
+        }
+        String identifier = user.getIdentifier();
+        cache.evict(identifier);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(identifier);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.citycab.app.enums;
+
+public enum ConnectionType {
+    MOBILE,
+    WEB,
+    // Postman, curl...
+    TEST
+}
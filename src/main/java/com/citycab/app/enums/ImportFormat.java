@@ -0,0 +1,7 @@
+package com.citycab.app.enums;
+
+public enum ImportFormat {
+    CSV,
+    // Tableau JSON ou un objet par ligne (NDJSON)
+    JSON
+}
@@ -0,0 +1,8 @@
+package com.citycab.app.enums;
+
+public enum PrincipalMode {
+    // Charge l'utilisateur depuis la base à chaque requête
+    DATABASE,
+    // Construit l'utilisateur à partir des claims du JWT
+    STATELESS
+}
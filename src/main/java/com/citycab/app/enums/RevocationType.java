@@ -0,0 +1,8 @@
+package com.citycab.app.enums;
+
+public enum RevocationType {
+    // Un token précis (digest SHA-256)
+    TOKEN,
+    // Tous les tokens de l'utilisateur dont la version (claim sv) est inférieure
+    USER
+}
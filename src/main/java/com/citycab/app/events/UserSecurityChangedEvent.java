@@ -0,0 +1,7 @@
+package com.citycab.app.events;
+
+/**
+ * Publié quand la version de sécurité effective d'un utilisateur change
+ * (mot de passe, rôles, désactivation, archivage)
+ */
+public record UserSecurityChangedEvent(String userId, long securityVersion) {}
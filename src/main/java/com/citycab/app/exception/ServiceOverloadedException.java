@@ -0,0 +1,12 @@
+package com.citycab.app.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import java.nio.file.AccessDeniedException;
 
 import org.apache.catalina.connector.ClientAbortException;
 import org.springframework.data.crossstore.ChangeSetPersister.NotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.MessagingException;
@@ -16,6 +17,8 @@ import org.springframework.web.client.ResourceAccessException;
 
 import com.citycab.app.common.BaseResponse;
 import com.citycab.app.exception.NotAuthorizeException;
+import com.citycab.app.exception.ServiceOverloadedException;
+import com.citycab.app.exception.TooManyRequestsException;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -86,6 +89,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<BaseResponse<?>> handleException(ServiceOverloadedException exp) {
+        log.warn(exp.getMessage());
+        BaseResponse<Object> response = BaseResponse.error(exp.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<BaseResponse<?>> handleException(TooManyRequestsException exp) {
+        log.warn(exp.getMessage());
+        BaseResponse<Object> response = BaseResponse.error(exp.getMessage(), HttpStatus.TOO_MANY_REQUESTS.value());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exp.getRetryAfterSeconds()))
+            .body(response);
+    }
+
     @ExceptionHandler(NotAuthorizeException.class)
     public ResponseEntity<BaseResponse<?>> handleException(NotAuthorizeException exp) {
         log.error(exp.getMessage(), exp);
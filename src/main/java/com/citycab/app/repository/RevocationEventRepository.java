@@ -0,0 +1,28 @@
+package com.citycab.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.citycab.app.entities.RevocationEventEntity;
+
+public interface RevocationEventRepository extends JpaRepository<RevocationEventEntity, Long> {
+
+    // Positions attribuées dans l'ordre des commits : aucune ne peut apparaître sous un curseur déjà servi
+    @Query("SELECT e FROM RevocationEventEntity e WHERE e.feedPosition > :after ORDER BY e.feedPosition")
+    List<RevocationEventEntity> findEventsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT coalesce(max(e.feedPosition), 0) FROM RevocationEventEntity e")
+    long findLastPosition();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevocationEventEntity e WHERE e.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
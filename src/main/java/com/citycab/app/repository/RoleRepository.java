@@ -1,12 +1,18 @@
 package com.citycab.app.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.citycab.app.entities.Role;
 
 public interface RoleRepository extends JpaRepository<Role, String> {
+    // Préférer RoleCatalog.findByCode : cette méthode interroge toujours la base
     Optional<Role> findByCode(String code);
-    
+
+    // Chargement du catalogue : rôles et permissions en une seule requête
+    @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.permissions")
+    List<Role> findAllWithPermissions();
 } 
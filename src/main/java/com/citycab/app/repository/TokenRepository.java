@@ -1,17 +1,26 @@
 package com.citycab.app.repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.citycab.app.common.TokenDigest;
 import com.citycab.app.entities.TokenEntity;
 
 public interface TokenRepository extends JpaRepository<TokenEntity, String> {
     
-    Optional<TokenEntity> findByToken(String token);
+    Optional<TokenEntity> findByTokenHash(String tokenHash);
+
+    // Les tokens sont stockés par digest : on hache le JWT avant la recherche
+    default Optional<TokenEntity> findByToken(String token) {
+        return findByTokenHash(TokenDigest.sha256Hex(token));
+    }
 
     // CORRECTION : Utilisez t.userId.id au lieu de t.user.id
     @Query("SELECT t FROM TokenEntity t WHERE t.user.id = :userId AND t.expired = false AND t.revoked = false")
@@ -21,4 +30,32 @@ public interface TokenRepository extends JpaRepository<TokenEntity, String> {
     List<TokenEntity> findByUserId_IdAndExpiredFalseAndRevokedFalse(String userId);
     
     List<TokenEntity> findAllByUserId_Id(String userId);
+
+    @Query("SELECT t.tokenHash FROM TokenEntity t WHERE t.user.id = :userId AND t.expired = false AND t.revoked = false")
+    List<String> findValidTokenHashesByUser(@Param("userId") String userId);
+
+    // Révocation ensembliste : un seul UPDATE, aucune entité chargée
+    @Modifying
+    @Query("UPDATE TokenEntity t SET t.expired = true, t.revoked = true WHERE t.user.id = :userId AND (t.expired = false OR t.revoked = false)")
+    int revokeAllByUser(@Param("userId") String userId);
+
+    @Modifying
+    @Query("UPDATE TokenEntity t SET t.expired = true, t.revoked = true WHERE t.tokenHash = :tokenHash")
+    int revokeByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Supprime un lot de tokens expirés. Les tokens révoqués restent jusqu'à leur expiration
+     * pour que l'index de révocation continue de les refuser.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM tokens WHERE id IN (" +
+        "SELECT id FROM tokens WHERE expires_at < :cutoff " +
+        "OR (expires_at IS NULL AND (revoked = true OR expired = true)) LIMIT :batchSize)",
+        nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+    // Alimente l'index de révocation en mémoire
+    @Query("SELECT t.tokenHash FROM TokenEntity t WHERE t.revoked = true OR t.expired = true")
+    List<String> findAllRevokedTokenHashes();
 }
\ No newline at end of file
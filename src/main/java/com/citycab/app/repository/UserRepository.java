@@ -1,14 +1,57 @@
 package com.citycab.app.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.citycab.app.entities.UserEntity;
+import com.citycab.app.enums.UserRole;
 
 public interface UserRepository extends JpaRepository<UserEntity, String> {
     Optional<UserEntity> findByIdentifier(String identifier);
     Optional<UserEntity> findByEmail(String identifier);
     
     Optional<UserEntity> findByIdentifierAndArchivedAndEnabled(String identifier, Boolean archived, Boolean isEnabled);
+
+    @Query("SELECT u.email FROM UserEntity u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.phone FROM UserEntity u WHERE u.phone IN :phones")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    // Chemin d'authentification : une seule requête, une ligne par rôle ; les permissions viennent de RoleCatalog
+    @Query("SELECT u.id AS id, u.identifier AS identifier, u.password AS password, u.userType AS userType, " +
+        "u.cityId AS cityId, u.city AS city, u.countryCode AS countryCode, u.securityVersion AS securityVersion, " +
+        "r.id AS roleId " +
+        "FROM UserEntity u LEFT JOIN u.roles r " +
+        "WHERE u.identifier = :identifier AND u.enabled = true AND u.archived = false")
+    List<AuthRow> findActiveAuthRows(@Param("identifier") String identifier);
+
+    // Utilisateurs dont les tokens émis avant une certaine version ne sont plus valides
+    @Query("SELECT u.id AS id, u.securityVersion AS securityVersion, u.enabled AS enabled, u.archived AS archived " +
+        "FROM UserEntity u WHERE u.securityVersion > 0 OR u.enabled = false OR u.archived = true")
+    List<UserSecurityState> findUserSecurityStates();
+
+    interface AuthRow {
+        String getId();
+        String getIdentifier();
+        String getPassword();
+        UserRole getUserType();
+        String getCityId();
+        String getCity();
+        String getCountryCode();
+        Long getSecurityVersion();
+        String getRoleId();
+    }
+
+    interface UserSecurityState {
+        String getId();
+        Long getSecurityVersion();
+        Boolean getEnabled();
+        Boolean getArchived();
+    }
 }
@@ -2,7 +2,6 @@ package com.citycab.app.services;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Set;
 
 import org.springframework.http.HttpHeaders;
@@ -11,19 +10,19 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.citycab.app.config.AuthPrincipalLoader;
+import com.citycab.app.config.AuthRateLimiter;
 import com.citycab.app.config.JwtTokenProvider;
 import com.citycab.app.config.LogoutService;
 import com.citycab.app.dtos.AuthResponse;
+import com.citycab.app.dtos.AuthenticatedUser;
 import com.citycab.app.dtos.JwtClaims;
 import com.citycab.app.dtos.LoginRequest;
 import com.citycab.app.dtos.TokenResponse;
 import com.citycab.app.dtos.UserResponse;
 import com.citycab.app.entities.Role;
-import com.citycab.app.entities.TokenEntity;
 import com.citycab.app.entities.UserEntity;
 import com.citycab.app.enums.SocialNetworkAuthProvider;
-import com.citycab.app.enums.TokenType;
-import com.citycab.app.repository.TokenRepository;
 import com.citycab.app.repository.UserRepository;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,11 +35,14 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final TokenRepository tokenRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final LogoutService logoutService;
+    private final TokenService tokenService;
+    private final AuthRateLimiter authRateLimiter;
+    private final AuthPrincipalLoader authPrincipalLoader;
 
     public AuthResponse register(LoginRequest request) {
+        authRateLimiter.checkIdentifier(request.getEmail());
         UserEntity user = UserEntity.builder()
             .email(request.getEmail())
             .identifier(request.getEmail())
@@ -87,10 +89,13 @@ public class AuthService {
             throw new SecurityException("Invalid or expired token");
         }
 
-        UserEntity user = this.userRepository.findByEmail(userEmail).orElseThrow();
-        String accessToken = jwtTokenProvider.generateAccessToken((buildJwtClaims(user)));
-        revokeUserTokens(user);
-        saveUserToken(user, accessToken);
+        authRateLimiter.checkIdentifier(userEmail);
+        // Projection d'authentification : pas de chargement des rôles et permissions
+        AuthenticatedUser principal = authPrincipalLoader.loadActive(userEmail)
+            .orElseThrow(() -> new SecurityException("User revoked or inactive"));
+        // Signature hors transaction, puis révocation + insertion dans une seule transaction courte
+        String accessToken = jwtTokenProvider.generateAccessToken(JwtClaims.fromPrincipal(principal));
+        tokenService.rotateUserToken(userRepository.getReferenceById(principal.getUserId()), accessToken);
         TokenResponse authResponse = TokenResponse.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
@@ -113,7 +118,7 @@ public class AuthService {
     private AuthResponse generateAuthResponse(UserEntity user) {
         var jwtToken = jwtTokenProvider.generateAccessToken(buildJwtClaims(user));
         var refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
-        saveUserToken(user, jwtToken);
+        tokenService.saveUserToken(user, jwtToken);
         return buildAuthResponse(user, jwtToken, refreshToken);
     }
 
@@ -125,40 +130,7 @@ public class AuthService {
         .build();
     }
 
-    private void saveUserToken(UserEntity user, String jwtToken) {
-        TokenEntity token = TokenEntity.builder()
-        .user(user)
-        .token(jwtToken)
-        .tokenType(TokenType.BEARER)
-        .expired(false)
-        .revoked(false)
-        .build();
-        tokenRepository.save(token);
-    }
-
-    private void revokeUserTokens(UserEntity user) {
-        List<TokenEntity> userTokens = tokenRepository.findAllValidTokenByUser(user.getId());
-        if (userTokens.isEmpty())
-        return;
-        userTokens.forEach(token -> {
-            token.setExpired(true);
-            token.setRevoked(true);
-        });
-        tokenRepository.saveAll(userTokens);
-    }
-
     private JwtClaims buildJwtClaims(UserEntity user) {
-        JwtClaims token = JwtClaims.builder()
-            .userId(user.getId())
-            .username(user.getIdentifier())
-            .roles(user.getRoleCodes())
-            .countryCode(user.getCountryCode())
-            .cityId(user.getCityId())
-            .city(user.getCity())
-            .userType(user.getUserType().name())
-            .authorities(user.getAuthorityStrings())
-            .build();
-        
-        return token;
+        return JwtClaims.fromEntity(user);
     }
 }
@@ -0,0 +1,140 @@
+package com.citycab.app.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Service;
+
+import com.citycab.app.config.CachingJwtDecoder;
+import com.citycab.app.config.JwtKeyRing;
+import com.citycab.app.config.JwtSigningProperties;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rotation de la clé de signature pilotée par la configuration (jwt.signing.*), seule source
+ * de vérité : chaque instance, et chaque redémarrage, signe avec la même clé active.
+ * Le trousseau est rechargé quand le contenu des fichiers de clés change (secret monté,
+ * mis à jour sur tous les noeuds) ou après un rafraîchissement de la configuration.
+ * <p>
+ * Procédure sans rejet de tokens : 1) publier la nouvelle clé publique dans previous-keys,
+ * 2) une fois rechargée partout, en faire la clé active et passer l'ancienne dans previous-keys,
+ * 3) retirer l'ancienne après expiration des tokens qu'elle a signés.
+ */
+@Slf4j
+@Service
+public class JwtKeyRotationService {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final JwtKeyRing jwtKeyRing;
+    private final JwtSigningProperties signingProperties;
+    private final JwtDecoder jwtDecoder;
+    private String loadedFingerprint;
+
+    public JwtKeyRotationService(JwtKeyRing jwtKeyRing, JwtSigningProperties signingProperties, JwtDecoder jwtDecoder) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.signingProperties = signingProperties;
+        this.jwtDecoder = jwtDecoder;
+        try {
+            // Trousseau construit au démarrage depuis la même configuration (JwtConfig)
+            this.loadedFingerprint = fingerprint();
+        } catch (IOException e) {
+            log.warn("Could not fingerprint JWT key material: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${jwt.signing.reload-interval-ms:60000}",
+        initialDelayString = "${jwt.signing.reload-interval-ms:60000}"
+    )
+    public void checkKeyMaterial() {
+        reloadIfChanged();
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigurationRefresh() {
+        reloadIfChanged();
+    }
+
+    /**
+     * Recharge le trousseau si la configuration ou le contenu des fichiers de clés a changé.
+     * En cas d'erreur, les clés en place restent actives.
+     */
+    public synchronized boolean reloadIfChanged() {
+        String fingerprint;
+        try {
+            fingerprint = fingerprint();
+        } catch (IOException e) {
+            log.warn("Could not read JWT key material, keeping current keys: {}", e.getMessage());
+            return false;
+        }
+        if (fingerprint.equals(loadedFingerprint)) {
+            return false;
+        }
+
+        Set<String> keyIdsBefore = keyIds(jwtKeyRing.publicKeys());
+        try {
+            jwtKeyRing.reload(signingProperties);
+        } catch (Exception e) {
+            log.error("Could not load JWT signing keys, keeping current keys: {}", e.getMessage());
+            return false;
+        }
+        loadedFingerprint = fingerprint;
+        log.info("JWT key ring reloaded: signing with {} ({})", jwtKeyRing.signingKeyId(), signingProperties.getAlgorithm());
+
+        // Une clé est sortie du trousseau : ses tokens déjà vérifiés ne doivent plus être servis depuis le cache
+        if (!keyIds(jwtKeyRing.publicKeys()).containsAll(keyIdsBefore) && jwtDecoder instanceof CachingJwtDecoder cachingDecoder) {
+            cachingDecoder.invalidateAll();
+        }
+        return true;
+    }
+
+    private String fingerprint() throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, signingProperties.getAlgorithm().getName());
+        update(digest, signingProperties.getKeyId());
+        digest.update(Files.readAllBytes(Paths.get(signingProperties.getPrivateKeyPath())));
+        digest.update(Files.readAllBytes(Paths.get(signingProperties.getPublicKeyPath())));
+        for (JwtSigningProperties.VerificationKey previous : signingProperties.getPreviousKeys()) {
+            update(digest, previous.getAlgorithm().getName());
+            update(digest, previous.getKeyId());
+            digest.update(Files.readAllBytes(Paths.get(previous.getPublicKeyPath())));
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Set<String> keyIds(JWKSet keySet) {
+        Set<String> keyIds = new HashSet<>();
+        for (JWK key : keySet.getKeys()) {
+            keyIds.add(key.getKeyID());
+        }
+        return keyIds;
+    }
+}
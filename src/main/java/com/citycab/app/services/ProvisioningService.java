@@ -0,0 +1,343 @@
+package com.citycab.app.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citycab.app.common.TokenDigest;
+import com.citycab.app.config.AssignableRoles;
+import com.citycab.app.config.BoundedPasswordEncoder;
+import com.citycab.app.config.JwtTokenProvider;
+import com.citycab.app.config.RoleCatalog;
+import com.citycab.app.dtos.BulkProvisionRequest;
+import com.citycab.app.dtos.BulkProvisionResponse;
+import com.citycab.app.dtos.JwtClaims;
+import com.citycab.app.dtos.ProvisionResult;
+import com.citycab.app.dtos.ProvisionUserRequest;
+import com.citycab.app.entities.Role;
+import com.citycab.app.entities.TokenEntity;
+import com.citycab.app.entities.UserEntity;
+import com.citycab.app.enums.SocialNetworkAuthProvider;
+import com.citycab.app.enums.TokenType;
+import com.citycab.app.repository.TokenRepository;
+import com.citycab.app.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Création de comptes en masse (onboarding d'une flotte).
+ * Hachage et signature en parallèle sur un pool dédié, insertions par lots JDBC,
+ * une transaction par lot : un lot en échec n'annule pas les autres et il est rejoué
+ * ligne à ligne, pour que seules les lignes fautives soient signalées en échec.
+ * Un appelant n'attribue ni rôle ni type d'utilisateur au-dessus des siens (AssignableRoles).
+ */
+@Slf4j
+@Service
+public class ProvisioningService implements DisposableBean {
+
+    private final UserRepository userRepository;
+    private final TokenRepository tokenRepository;
+    private final RoleCatalog roleCatalog;
+    private final PasswordEncoder passwordHasher;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    public ProvisioningService(
+        UserRepository userRepository,
+        TokenRepository tokenRepository,
+        RoleCatalog roleCatalog,
+        PasswordEncoder passwordEncoder,
+        JwtTokenProvider jwtTokenProvider,
+        PlatformTransactionManager transactionManager,
+        @Value("${citycab.provisioning.threads:0}") int threads,
+        @Value("${citycab.provisioning.chunk-size:500}") int chunkSize
+    ) {
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.roleCatalog = roleCatalog;
+        // Le pool borné des logins n'est pas fait pour un lot de 10k : on hache sur notre propre pool
+        this.passwordHasher = passwordEncoder instanceof BoundedPasswordEncoder bounded
+            ? bounded.getDelegate()
+            : passwordEncoder;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkProvisionResponse provision(BulkProvisionRequest request, AssignableRoles caller) {
+        long start = System.nanoTime();
+        List<ProvisionUserRequest> rows = request.getUsers();
+        ProvisionResult[] results = new ProvisionResult[rows.size()];
+
+        // 1. Rejets sans coût CPU : droits de l'appelant, doublons dans le lot et comptes déjà existants
+        Map<String, Optional<RoleCatalog.CatalogRole>> catalogRoles = new HashMap<>();
+        Set<String> existingEmails = findExisting(rows, ProvisionUserRequest::getEmail, userRepository::findExistingEmails);
+        Set<String> existingPhones = findExisting(rows, ProvisionUserRequest::getPhone, userRepository::findExistingPhones);
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String email = rows.get(i).getEmail();
+            String phone = rows.get(i).getPhone();
+            String denied = checkAssignable(rows.get(i), caller, catalogRoles);
+            if (denied != null) {
+                results[i] = result(i, email, ProvisionResult.Status.FAILED, denied);
+            } else if (existingEmails.contains(email) || !seenEmails.add(email)) {
+                results[i] = result(i, email, ProvisionResult.Status.DUPLICATE, "Email already registered");
+            } else if (phone != null && (existingPhones.contains(phone) || !seenPhones.add(phone))) {
+                results[i] = result(i, email, ProvisionResult.Status.DUPLICATE, "Phone already registered");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // 2. Hachage BCrypt en parallèle ; un mot de passe refusé n'écarte que sa ligne
+        Map<String, Role> roles = new HashMap<>();
+        catalogRoles.forEach((code, role) -> role.ifPresent(found -> roles.put(code, found.toEntity())));
+        List<UserEntity> built = parallel(accepted, i -> {
+            try {
+                return buildUser(rows.get(i), roles);
+            } catch (RuntimeException e) {
+                results[i] = result(i, rows.get(i).getEmail(), ProvisionResult.Status.FAILED, "password: " + rootMessage(e));
+                return null;
+            }
+        });
+        List<Integer> hashed = new ArrayList<>(accepted.size());
+        List<UserEntity> users = new ArrayList<>(accepted.size());
+        for (int k = 0; k < built.size(); k++) {
+            if (built.get(k) != null) {
+                hashed.add(accepted.get(k));
+                users.add(built.get(k));
+            }
+        }
+
+        // 3. Insertion par lots
+        List<Integer> persisted = new ArrayList<>();
+        for (int from = 0; from < hashed.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, hashed.size());
+            List<UserEntity> chunk = users.subList(from, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(chunk));
+                for (int k = from; k < to; k++) {
+                    markCreated(k, rows, users, hashed, results, persisted);
+                }
+            } catch (RuntimeException e) {
+                // Une contrainte violée (ex: création concurrente) annule tout le lot : rejeu ligne à ligne
+                log.warn("Provisioning chunk {}-{} failed, retrying row by row: {}", from, to, rootMessage(e));
+                for (int k = from; k < to; k++) {
+                    UserEntity user = users.get(k);
+                    // Id attribué par le @PrePersist du lot annulé : la ligne est réinsérée comme nouvelle
+                    user.setId(null);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+                        markCreated(k, rows, users, hashed, results, persisted);
+                    } catch (RuntimeException rowError) {
+                        int i = hashed.get(k);
+                        results[i] = result(i, rows.get(i).getEmail(), ProvisionResult.Status.FAILED, rootMessage(rowError));
+                    }
+                }
+            }
+        }
+
+        // 4. Signature des tokens en parallèle, puis insertion par lots
+        if (request.isIssueTokens() && !persisted.isEmpty()) {
+            issueTokens(persisted, users, hashed, results);
+        }
+
+        int created = 0;
+        int failed = 0;
+        for (ProvisionResult result : results) {
+            if (result.getStatus() == ProvisionResult.Status.CREATED) {
+                created++;
+            } else {
+                failed++;
+            }
+        }
+
+        return BulkProvisionResponse.builder()
+            .requested(rows.size())
+            .created(created)
+            .failed(failed)
+            .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .results(List.of(results))
+            .build();
+    }
+
+    private static void markCreated(int k, List<ProvisionUserRequest> rows, List<UserEntity> users,
+                                    List<Integer> accepted, ProvisionResult[] results, List<Integer> persisted) {
+        int i = accepted.get(k);
+        results[i] = ProvisionResult.builder()
+            .index(i)
+            .email(rows.get(i).getEmail())
+            .status(ProvisionResult.Status.CREATED)
+            .userId(users.get(k).getId())
+            .build();
+        persisted.add(k);
+    }
+
+    private void issueTokens(List<Integer> persisted, List<UserEntity> users, List<Integer> accepted, ProvisionResult[] results) {
+        Instant expiresAt = Instant.now().plus(accessTokenExpiration, ChronoUnit.MINUTES);
+        List<String[]> signed = parallel(persisted, k -> {
+            UserEntity user = users.get(k);
+            return new String[] {
+                jwtTokenProvider.generateAccessToken(JwtClaims.fromEntity(user)),
+                jwtTokenProvider.generateRefreshToken(user.getId())
+            };
+        });
+
+        for (int from = 0; from < persisted.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, persisted.size());
+            List<TokenEntity> tokens = new ArrayList<>(to - from);
+            for (int p = from; p < to; p++) {
+                tokens.add(TokenEntity.builder()
+                    .user(users.get(persisted.get(p)))
+                    .tokenHash(TokenDigest.sha256Hex(signed.get(p)[0]))
+                    .tokenType(TokenType.BEARER)
+                    .expired(false)
+                    .revoked(false)
+                    .expiresAt(expiresAt)
+                    .build());
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> tokenRepository.saveAll(tokens));
+                for (int p = from; p < to; p++) {
+                    ProvisionResult result = results[accepted.get(persisted.get(p))];
+                    result.setAccessToken(signed.get(p)[0]);
+                    result.setRefreshToken(signed.get(p)[1]);
+                }
+            } catch (RuntimeException e) {
+                // Le compte existe : seul l'émission de token a échoué, un login suffira
+                log.warn("Token issuance chunk {}-{} failed: {}", from, to, e.getMessage());
+                for (int p = from; p < to; p++) {
+                    results[accepted.get(persisted.get(p))].setError("Account created but token issuance failed: " + rootMessage(e));
+                }
+            }
+        }
+    }
+
+    private UserEntity buildUser(ProvisionUserRequest row, Map<String, Role> roles) {
+        LocalDateTime now = LocalDateTime.now();
+        UserEntity user = UserEntity.builder()
+            .email(row.getEmail())
+            .identifier(row.getEmail())
+            .password(passwordHasher.encode(row.getPassword()))
+            .phone(row.getPhone())
+            .firstName(row.getFirstName())
+            .lastName(row.getLastName())
+            .userType(row.getUserType())
+            .countryCode(row.getCountryCode())
+            .city(row.getCity())
+            .cityId(row.getCityId())
+            .provider(SocialNetworkAuthProvider.EMAIL)
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+        if (row.getRoleCode() != null) {
+            user.addRole(roles.get(row.getRoleCode()));
+        }
+        return user;
+    }
+
+    private static Set<String> findExisting(List<ProvisionUserRequest> rows,
+                                            Function<ProvisionUserRequest, String> key,
+                                            Function<List<String>, List<String>> lookup) {
+        List<String> values = rows.stream().map(key).filter(Objects::nonNull).toList();
+        Set<String> existing = new HashSet<>();
+        // IN borné : PostgreSQL limite le nombre de paramètres par requête
+        for (int from = 0; from < values.size(); from += 1000) {
+            existing.addAll(lookup.apply(values.subList(from, Math.min(from + 1000, values.size()))));
+        }
+        return existing;
+    }
+
+    /**
+     * Motif du refus, null si l'appelant peut attribuer le type et le rôle demandés
+     */
+    private String checkAssignable(ProvisionUserRequest row, AssignableRoles caller,
+                                   Map<String, Optional<RoleCatalog.CatalogRole>> catalogRoles) {
+        if (!caller.canAssign(row.getUserType())) {
+            return "userType: cannot assign " + row.getUserType();
+        }
+        String code = row.getRoleCode();
+        if (code == null) {
+            return null;
+        }
+        // Une seule résolution par code pour tout le lot
+        Optional<RoleCatalog.CatalogRole> role = catalogRoles.computeIfAbsent(code, roleCatalog::findByCode);
+        if (role.isEmpty()) {
+            return "Unknown role: " + code;
+        }
+        return caller.canAssign(role.get()) ? null : "roleCode: cannot assign " + code;
+    }
+
+    private <T> List<T> parallel(List<Integer> indexes, Function<Integer, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(index), executor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
+
+    private static ProvisionResult result(int index, String email, ProvisionResult.Status status, String error) {
+        return ProvisionResult.builder()
+            .index(index)
+            .email(email)
+            .status(status)
+            .error(error)
+            .build();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
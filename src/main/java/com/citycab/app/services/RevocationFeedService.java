@@ -0,0 +1,367 @@
+package com.citycab.app.services;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.citycab.app.config.CachedUserDetailsService;
+import com.citycab.app.config.ReplicaReads;
+import com.citycab.app.dtos.RevocationEvent;
+import com.citycab.app.dtos.RevocationFeedResponse;
+import com.citycab.app.entities.RevocationEventEntity;
+import com.citycab.app.enums.RevocationType;
+import com.citycab.app.events.UserSecurityChangedEvent;
+import com.citycab.app.exception.ServiceOverloadedException;
+import com.citycab.app.repository.RevocationEventRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flux de révocation numéroté : les autres services tiennent leur propre
+ * ensemble de révocations à jour, par polling incrémental ou en SSE.
+ * Un événement est conservé tant qu'un token concerné peut encore être valide.
+ * <p>
+ * La séquence IDENTITY est attribuée à l'insertion, pas au commit : une transaction lente
+ * peut rendre visible un numéro inférieur à un curseur déjà servi. Le flux est donc ordonné
+ * par une position attribuée après commit, par lots, sous un verrou advisory : un lot ne
+ * voit que des lignes déjà commitées et ses positions suivent celles de tous les lots précédents.
+ * <p>
+ * Chaque instance suit aussi le flux pour évincer de son cache local les utilisateurs
+ * dont l'état de sécurité a changé sur une autre instance.
+ */
+@Slf4j
+@Service
+public class RevocationFeedService implements SmartInitializingSingleton, DisposableBean {
+
+    // Pages lues par tick pour un abonné en retard, avant de laisser la place aux autres
+    private static final int CATCH_UP_PAGES_PER_TICK = 10;
+
+    // Clé du verrou advisory : une seule instance attribue des positions à la fois
+    private static final long POSITION_LOCK_KEY = 0x7265766f63L;
+
+    private static final String ASSIGN_POSITIONS =
+        "UPDATE revocation_events e SET feed_position = nextval('revocation_feed_position') " +
+        "FROM (SELECT sequence FROM revocation_events WHERE feed_position IS NULL ORDER BY sequence LIMIT ?) p " +
+        "WHERE e.sequence = p.sequence";
+
+    private final RevocationEventRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor streamExecutor;
+    private final int maxSubscribers;
+    private final ObjectProvider<UserDetailsService> userDetailsService;
+    private final ReplicaReads replicaReads;
+    // Dernière position diffusée en direct, -1 sans abonné (lu et écrit par le seul tick broadcast)
+    private long tailCursor = -1;
+    // Dernière position traitée pour le cache local, -1 avant le premier tick
+    private long cacheCursor = -1;
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    @Value("${citycab.revocations.page-size:1000}")
+    private int pageSize;
+
+    @Value("${citycab.revocations.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    public RevocationFeedService(
+        RevocationEventRepository repository,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ObjectProvider<UserDetailsService> userDetailsService,
+        ReplicaReads replicaReads,
+        // Chaque abonné garde une requête HTTP ouverte jusqu'à stream-timeout-ms
+        @Value("${citycab.revocations.max-subscribers:100}") int maxSubscribers,
+        @Value("${citycab.revocations.stream-threads:2}") int streamThreads
+    ) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxSubscribers = maxSubscribers;
+        this.userDetailsService = userDetailsService;
+        this.replicaReads = replicaReads;
+
+        // Au plus un envoi en file par abonné : la file n'a pas à dépasser le nombre d'abonnés
+        AtomicInteger threadCount = new AtomicInteger();
+        this.streamExecutor = new ThreadPoolExecutor(
+            streamThreads,
+            streamThreads,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxSubscribers),
+            runnable -> {
+                Thread thread = new Thread(runnable, "revocation-stream-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Séquence indépendante de la table : la purge des événements ne fait jamais reculer les positions
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS revocation_feed_position");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_revocation_events_unpublished " +
+            "ON revocation_events (sequence) WHERE feed_position IS NULL");
+    }
+
+    /**
+     * Enregistre la révocation de tokens, dans la transaction de l'appelant
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTokenRevocations(List<String> tokenHashes) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(accessTokenExpiration, ChronoUnit.MINUTES);
+        List<RevocationEventEntity> events = new ArrayList<>(tokenHashes.size());
+        for (String tokenHash : tokenHashes) {
+            events.add(RevocationEventEntity.builder()
+                .type(RevocationType.TOKEN)
+                .tokenHash(tokenHash)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .build());
+        }
+        repository.saveAll(events);
+    }
+
+    // Après commit seulement : un rollback ne doit rien publier
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        Instant now = Instant.now();
+        repository.save(RevocationEventEntity.builder()
+            .type(RevocationType.USER)
+            .userId(event.userId())
+            .securityVersion(event.securityVersion())
+            .createdAt(now)
+            .expiresAt(now.plus(accessTokenExpiration, ChronoUnit.MINUTES))
+            .build());
+    }
+
+    /**
+     * Page du flux après le curseur. Servie par le réplica quand il est activé : les positions
+     * sont attribuées sur le primaire dans l'ordre des commits, un réplica en retard renvoie
+     * un préfixe du flux et le consommateur reprend au même curseur à l'appel suivant.
+     */
+    public RevocationFeedResponse poll(long after, int limit) {
+        int pageLimit = Math.max(1, Math.min(limit, pageSize));
+        List<RevocationEvent> events = replicaReads.execute(() -> fetch(after, pageLimit));
+        long cursor = events.isEmpty() ? after : events.get(events.size() - 1).getSeq();
+        return RevocationFeedResponse.builder()
+            .events(events)
+            .cursor(cursor)
+            .hasMore(events.size() == pageLimit)
+            .build();
+    }
+
+    public SseEmitter subscribe(long after) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceOverloadedException("Too many revocation stream subscribers, use polling or retry later");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        subscribers.put(emitter, new Subscriber(after));
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    /**
+     * Suite en direct : une seule requête par tick, à partir de la dernière position diffusée,
+     * partagée par les abonnés à jour. Un abonné en retard (reprise depuis after, ou client lent)
+     * lit ses propres pages et ne retient pas les autres. Les envois partent sur un pool dédié,
+     * un seul à la fois par abonné : le thread du scheduler ne fait que la requête.
+     */
+    @Scheduled(fixedDelayString = "${citycab.revocations.stream-interval-ms:1000}")
+    public void broadcast() {
+        if (subscribers.isEmpty()) {
+            tailCursor = -1;
+            return;
+        }
+        long tailStart = tailCursor >= 0 ? tailCursor : repository.findLastPosition();
+        List<RevocationEvent> tail = fetch(tailStart, pageSize);
+        tailCursor = tail.isEmpty() ? tailStart : tail.get(tail.size() - 1).getSeq();
+
+        subscribers.forEach((emitter, subscriber) -> {
+            if (subscriber.cursor() >= tailStart && (tail.isEmpty() || subscriber.cursor() >= tailCursor)) {
+                return;
+            }
+            if (!subscriber.startSending()) {
+                // Envoi précédent encore en cours : l'abonné rattrapera depuis son curseur
+                return;
+            }
+            try {
+                streamExecutor.execute(() -> deliver(emitter, subscriber, tailStart, tail));
+            } catch (RejectedExecutionException e) {
+                subscriber.stopSending();
+            }
+        });
+    }
+
+    private void deliver(SseEmitter emitter, Subscriber subscriber, long tailStart, List<RevocationEvent> tail) {
+        try {
+            if (subscriber.cursor() >= tailStart) {
+                send(emitter, subscriber, tail);
+                return;
+            }
+            // Rattrapage : pages lues depuis le curseur de l'abonné, en nombre borné par tick
+            for (int page = 0; page < CATCH_UP_PAGES_PER_TICK; page++) {
+                List<RevocationEvent> events = fetch(subscriber.cursor(), pageSize);
+                send(emitter, subscriber, events);
+                if (events.size() < pageSize) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        } catch (RuntimeException e) {
+            log.warn("Revocation stream delivery failed, retrying next tick: {}", e.getMessage());
+        } finally {
+            subscriber.stopSending();
+        }
+    }
+
+    private static void send(SseEmitter emitter, Subscriber subscriber, List<RevocationEvent> events) throws IOException {
+        for (RevocationEvent event : events) {
+            if (event.getSeq() > subscriber.cursor()) {
+                emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.getSeq()))
+                    .name("revocation")
+                    .data(event));
+                subscriber.advance(event.getSeq());
+            }
+        }
+    }
+
+    /**
+     * Évince du cache local les utilisateurs concernés par les nouveaux événements USER,
+     * y compris ceux écrits par une autre instance. Le cache n'est pas plus vieux que le
+     * démarrage : le suivi commence à la dernière position publiée.
+     */
+    @Scheduled(fixedDelayString = "${citycab.revocations.cache-sync-interval-ms:1000}")
+    public void evictChangedUsers() {
+        if (!(userDetailsService.getIfAvailable() instanceof CachedUserDetailsService cache)) {
+            return;
+        }
+        if (cacheCursor < 0) {
+            cacheCursor = repository.findLastPosition();
+            return;
+        }
+        List<RevocationEvent> events;
+        do {
+            events = fetch(cacheCursor, pageSize);
+            Set<String> userIds = new HashSet<>();
+            for (RevocationEvent event : events) {
+                if (event.getType() == RevocationType.USER && event.getUserId() != null) {
+                    userIds.add(event.getUserId());
+                }
+            }
+            cache.evictUsers(userIds);
+            if (!events.isEmpty()) {
+                cacheCursor = events.get(events.size() - 1).getSeq();
+            }
+        } while (events.size() == pageSize);
+    }
+
+    /**
+     * Publie les événements commités. Le verrou est pris avant la lecture : en READ COMMITTED,
+     * l'UPDATE voit tout lot commité par une autre instance avant lui, donc ses positions
+     * sont toutes supérieures aux positions déjà visibles.
+     */
+    @Scheduled(fixedDelayString = "${citycab.revocations.publish-interval-ms:500}")
+    public void publishCommittedEvents() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, POSITION_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                // Une autre instance publie en ce moment
+                return;
+            }
+            int published;
+            do {
+                published = jdbcTemplate.update(ASSIGN_POSITIONS, pageSize);
+            } while (published == pageSize);
+        });
+    }
+
+    @Scheduled(
+        fixedDelayString = "${citycab.tokens.purge.interval-ms:3600000}",
+        initialDelayString = "${citycab.tokens.purge.interval-ms:3600000}"
+    )
+    public void purgeExpiredEvents() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired revocation events", deleted);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private List<RevocationEvent> fetch(long after, int limit) {
+        return repository.findEventsAfter(after, Limit.of(limit)).stream()
+            .map(RevocationEvent::fromEntity)
+            .toList();
+    }
+
+    @Override
+    public void destroy() {
+        streamExecutor.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+
+        Subscriber(long cursor) {
+            this.cursor = cursor;
+        }
+
+        long cursor() {
+            return cursor;
+        }
+
+        void advance(long cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean startSending() {
+            return sending.compareAndSet(false, true);
+        }
+
+        void stopSending() {
+            sending.set(false);
+        }
+    }
+}
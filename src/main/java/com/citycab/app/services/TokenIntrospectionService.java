@@ -0,0 +1,197 @@
+package com.citycab.app.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.citycab.app.common.TokenDigest;
+import com.citycab.app.config.JwtTokenProvider;
+import com.citycab.app.config.TokenRevocationIndex;
+import com.citycab.app.dtos.IntrospectionResult;
+import com.citycab.app.exception.ServiceOverloadedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Introspection de tokens par lot pour la gateway et les services internes.
+ * Le verdict cryptographique est mis en cache jusqu'à l'exp du token (les refus
+ * quelques secondes seulement) ; révocation et version de sécurité sont
+ * revérifiées à chaque appel contre l'index en mémoire.
+ * Les signatures à vérifier sont réparties sur un petit pool dédié et borné : un lot
+ * ne peut pas occuper tous les coeurs, et un pool saturé refuse au lieu d'empiler.
+ */
+@Service
+public class TokenIntrospectionService implements DisposableBean {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationIndex revocationIndex;
+    private final Cache<String, IntrospectionResult> verdicts;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long timeoutMs;
+
+    public TokenIntrospectionService(
+        JwtTokenProvider jwtTokenProvider,
+        TokenRevocationIndex revocationIndex,
+        @Value("${citycab.introspection.cache-size:50000}") long cacheSize,
+        @Value("${citycab.introspection.negative-ttl-seconds:30}") long negativeTtlSeconds,
+        @Value("${citycab.introspection.threads:2}") int threads,
+        @Value("${citycab.introspection.queue-capacity:16}") int queueCapacity,
+        @Value("${citycab.introspection.timeout-ms:5000}") long timeoutMs
+    ) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.revocationIndex = revocationIndex;
+        this.threads = threads;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "token-introspection-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.verdicts = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfter(Expiry.creating((String digest, IntrospectionResult verdict) -> timeToLive(verdict, negativeTtl)))
+            .build();
+    }
+
+    public List<IntrospectionResult> introspect(List<String> tokens) {
+        // Un digest par token distinct ; les doublons du lot ne sont vérifiés qu'une fois
+        Map<String, String> digests = new HashMap<>();
+        for (String token : new LinkedHashSet<>(tokens)) {
+            digests.put(token, TokenDigest.sha256Hex(token));
+        }
+
+        Map<String, IntrospectionResult> known = new HashMap<>(verdicts.getAllPresent(digests.values()));
+        List<String> misses = new ArrayList<>();
+        digests.forEach((token, digest) -> {
+            if (!known.containsKey(digest)) {
+                misses.add(token);
+            }
+        });
+
+        for (Map.Entry<String, IntrospectionResult> verified : verifyAll(misses, digests).entrySet()) {
+            verdicts.put(verified.getKey(), verified.getValue());
+            known.put(verified.getKey(), verified.getValue());
+        }
+
+        List<IntrospectionResult> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            String digest = digests.get(token);
+            results.add(applyRevocation(digest, known.get(digest)));
+        }
+        return results;
+    }
+
+    /**
+     * Vérifie les signatures par tranches, au plus une tranche par thread du pool.
+     * Digest -> verdict.
+     */
+    private Map<String, IntrospectionResult> verifyAll(List<String> tokens, Map<String, String> digests) {
+        Map<String, IntrospectionResult> verified = new HashMap<>();
+        if (tokens.isEmpty()) {
+            return verified;
+        }
+
+        int sliceSize = (tokens.size() + threads - 1) / threads;
+        List<Future<Map<String, IntrospectionResult>>> futures = new ArrayList<>(threads);
+        try {
+            for (int from = 0; from < tokens.size(); from += sliceSize) {
+                List<String> slice = tokens.subList(from, Math.min(from + sliceSize, tokens.size()));
+                futures.add(executor.submit(() -> {
+                    Map<String, IntrospectionResult> results = new HashMap<>();
+                    for (String token : slice) {
+                        results.put(digests.get(token), verify(token));
+                    }
+                    return results;
+                }));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (Future<Map<String, IntrospectionResult>> future : futures) {
+                verified.putAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return verified;
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceOverloadedException("Introspection service is busy, please retry shortly", e);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceOverloadedException("Token introspection timed out", e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Token introspection interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Token introspection failed", e.getCause());
+        }
+    }
+
+    private IntrospectionResult verify(String token) {
+        return jwtTokenProvider.verifyToken(token)
+            .map(claims -> claims.getUsername() == null
+                // Refresh token : ne donne accès à aucune ressource
+                ? IntrospectionResult.inactive("not_an_access_token")
+                : IntrospectionResult.fromClaims(claims))
+            .orElseGet(() -> IntrospectionResult.inactive("invalid"));
+    }
+
+    private IntrospectionResult applyRevocation(String digest, IntrospectionResult verdict) {
+        if (!verdict.isActive()) {
+            return verdict;
+        }
+        if (verdict.getExp() != null && verdict.getExp() <= Instant.now().getEpochSecond()) {
+            return IntrospectionResult.inactive("expired");
+        }
+        if (revocationIndex.isRevokedDigest(digest)) {
+            return IntrospectionResult.inactive("revoked");
+        }
+        if (revocationIndex.isStale(verdict.getUserId(), verdict.getSecurityVersion())) {
+            return IntrospectionResult.inactive("stale");
+        }
+        return verdict;
+    }
+
+    private static Duration timeToLive(IntrospectionResult verdict, Duration negativeTtl) {
+        if (!verdict.isActive() || verdict.getExp() == null) {
+            return negativeTtl;
+        }
+        Duration remaining = Duration.between(Instant.now(), Instant.ofEpochSecond(verdict.getExp()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.citycab.app.services;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintenance des partitions mensuelles de la table tokens (PARTITION BY RANGE (expires_at)).
+ * Crée les partitions à venir et supprime en bloc celles dont tous les tokens ont expiré.
+ * Inactif tant que la table n'a pas été convertie (voir db/tokens-partitioning.sql).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenPartitionService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String PARTITION_PREFIX = "tokens_p";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${citycab.tokens.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${citycab.tokens.partitioning.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${citycab.tokens.partitioning.retention-months:1}")
+    private int retentionMonths;
+
+    @Scheduled(cron = "${citycab.tokens.partitioning.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        dropExpiredPartitions(current.minusMonths(retentionMonths));
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF tokens " +
+            "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    private void dropExpiredPartitions(YearMonth oldestKept) {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'tokens' AND c.relname LIKE 'tokens_p%'",
+            String.class
+        );
+
+        for (String partition : partitions) {
+            String suffix = partition.substring(PARTITION_PREFIX.length());
+            if (!suffix.matches("\\d{6}")) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(suffix, PARTITION_SUFFIX);
+            if (month.isBefore(oldestKept)) {
+                // DROP d'une partition entière : pas de DELETE ligne à ligne ni de VACUUM
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired tokens partition {}", partition);
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'tokens'",
+            Integer.class
+        );
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.citycab.app.services;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.citycab.app.repository.TokenRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Purge périodique des tokens expirés, par lots bornés
+ * pour ne pas tenir de verrous longs sur la table tokens.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenPurgeService {
+
+    private final TokenRepository tokenRepository;
+
+    @Value("${citycab.tokens.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${citycab.tokens.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${citycab.tokens.purge.max-batches:100}")
+    private int maxBatches;
+
+    // Marge après expiration avant suppression (tolérance d'horloge)
+    @Value("${citycab.tokens.purge.grace-period-minutes:5}")
+    private long gracePeriodMinutes;
+
+    // Premier passage après un intervalle complet : les lignes migrées sans expires_at
+    // ne sont supprimées qu'une fois tous les access tokens émis avant le démarrage expirés
+    @Scheduled(
+        fixedDelayString = "${citycab.tokens.purge.interval-ms:3600000}",
+        initialDelayString = "${citycab.tokens.purge.interval-ms:3600000}"
+    )
+    public void purgeExpiredTokens() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(gracePeriodMinutes));
+        long deleted = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int count = tokenRepository.deleteExpiredBatch(cutoff, batchSize);
+            deleted += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Purged {} expired tokens", deleted);
+        }
+    }
+}
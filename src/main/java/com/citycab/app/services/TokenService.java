@@ -0,0 +1,82 @@
+package com.citycab.app.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.citycab.app.common.TokenDigest;
+import com.citycab.app.config.TokenRevocationIndex;
+import com.citycab.app.entities.TokenEntity;
+import com.citycab.app.entities.UserEntity;
+import com.citycab.app.enums.TokenType;
+import com.citycab.app.repository.TokenRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Persistance et révocation des tokens : mises à jour ensemblistes,
+ * sans chargement des entités.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+
+    private final TokenRepository tokenRepository;
+    private final TokenRevocationIndex revocationIndex;
+    private final RevocationFeedService revocationFeedService;
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    @Transactional
+    public void saveUserToken(UserEntity user, String jwtToken) {
+        TokenEntity token = TokenEntity.builder()
+            .user(user)
+            .tokenHash(TokenDigest.sha256Hex(jwtToken))
+            .tokenType(TokenType.BEARER)
+            .expired(false)
+            .revoked(false)
+            .expiresAt(Instant.now().plus(accessTokenExpiration, ChronoUnit.MINUTES))
+            .build();
+        tokenRepository.save(token);
+    }
+
+    /**
+     * Révoque les tokens valides de l'utilisateur et enregistre le nouveau, dans une seule transaction
+     */
+    @Transactional
+    public void rotateUserToken(UserEntity user, String jwtToken) {
+        revokeUserTokens(user.getId());
+        saveUserToken(user, jwtToken);
+    }
+
+    @Transactional
+    public int revokeUserTokens(String userId) {
+        List<String> digests = tokenRepository.findValidTokenHashesByUser(userId);
+        if (digests.isEmpty()) {
+            return 0;
+        }
+        int revoked = tokenRepository.revokeAllByUser(userId);
+        revocationFeedService.recordTokenRevocations(digests);
+        digests.forEach(revocationIndex::markRevokedDigest);
+        return revoked;
+    }
+
+    /**
+     * Révoque un token par son digest, retourne false s'il n'a jamais été émis
+     */
+    @Transactional
+    public boolean revokeToken(String jwtToken) {
+        String digest = TokenDigest.sha256Hex(jwtToken);
+        if (tokenRepository.revokeByTokenHash(digest) == 0) {
+            return false;
+        }
+        revocationFeedService.recordTokenRevocations(List.of(digest));
+        revocationIndex.markRevokedDigest(digest);
+        return true;
+    }
+}
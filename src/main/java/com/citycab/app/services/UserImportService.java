@@ -0,0 +1,539 @@
+package com.citycab.app.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citycab.app.common.CsvRowReader;
+import com.citycab.app.config.AssignableRoles;
+import com.citycab.app.config.BoundedPasswordEncoder;
+import com.citycab.app.config.RoleCatalog;
+import com.citycab.app.dtos.ImportProgress;
+import com.citycab.app.dtos.ImportRowError;
+import com.citycab.app.dtos.ProvisionUserRequest;
+import com.citycab.app.entities.UserEntity;
+import com.citycab.app.enums.ImportFormat;
+import com.citycab.app.enums.UserRole;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import en flux de comptes (rosters de chauffeurs des flottes partenaires), CSV ou JSON.
+ * Lecture incrémentale par lots de taille fixe : la mémoire ne dépend pas de la taille du fichier.
+ * Le hachage BCrypt d'un lot tourne sur un pool dédié pendant que le lot précédent est chargé
+ * par COPY dans une table temporaire, puis inséré dans users et user_roles en deux requêtes.
+ * Les doublons (email, téléphone) sont écartés par ON CONFLICT DO NOTHING et signalés ligne à ligne.
+ * Comme pour le provisioning, un rôle ou un type au-dessus de l'appelant est une erreur de ligne.
+ */
+@Slf4j
+@Service
+public class UserImportService implements DisposableBean {
+
+    /**
+     * Reçoit les erreurs ligne à ligne et l'avancement, toujours depuis le thread de l'import
+     */
+    public interface ImportListener {
+        void onRowError(ImportRowError error);
+        void onProgress(ImportProgress progress);
+    }
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final ObjectReader ROW_READER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .readerFor(ProvisionUserRequest.class);
+
+    // Une table temporaire par connexion, vidée à chaque commit
+    private static final String CREATE_STAGING =
+        "CREATE TEMP TABLE IF NOT EXISTS user_import_staging (" +
+        "line bigint, id varchar(100), email varchar(255), phone varchar(255), " +
+        "first_name varchar(255), last_name varchar(255), password varchar(255), user_type varchar(20), " +
+        "country_code varchar(255), city varchar(255), city_id varchar(255), role_id varchar(100)" +
+        ") ON COMMIT DELETE ROWS";
+
+    private static final String COPY_STAGING =
+        "COPY user_import_staging (line, id, email, phone, first_name, last_name, password, user_type, " +
+        "country_code, city, city_id, role_id) FROM STDIN WITH (FORMAT csv)";
+
+    // Renvoie les lignes non insérées (email, téléphone ou identifiant déjà pris)
+    private static final String INSERT_USERS =
+        "WITH inserted AS (" +
+        "INSERT INTO users (id, email, identifier, phone, first_name, last_name, password, provider, " +
+        "enabled, email_verified, phone_verified, is_verified, archived, user_type, country_code, city, city_id, " +
+        "security_version, created_at, updated_at) " +
+        "SELECT s.id, s.email, s.email, s.phone, s.first_name, s.last_name, s.password, 'EMAIL', " +
+        "true, false, false, false, false, s.user_type, s.country_code, s.city, s.city_id, " +
+        "0, LOCALTIMESTAMP, LOCALTIMESTAMP FROM user_import_staging s ORDER BY s.line " +
+        "ON CONFLICT DO NOTHING RETURNING id" +
+        ") SELECT s.line, s.email FROM user_import_staging s " +
+        "WHERE NOT EXISTS (SELECT 1 FROM inserted i WHERE i.id = s.id) ORDER BY s.line";
+
+    private static final String INSERT_USER_ROLES =
+        "INSERT INTO user_roles (user_id, role_id) " +
+        "SELECT s.id, s.role_id FROM user_import_staging s JOIN users u ON u.id = s.id " +
+        "WHERE s.role_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoleCatalog roleCatalog;
+    private final Validator validator;
+    private final PasswordEncoder passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int threads;
+    private final int chunkSize;
+
+    // Sert uniquement à générer les ids (préfixe et format de UserEntity)
+    private final UserEntity idTemplate = new UserEntity();
+
+    public UserImportService(
+        JdbcTemplate jdbcTemplate,
+        RoleCatalog roleCatalog,
+        Validator validator,
+        PasswordEncoder passwordEncoder,
+        PlatformTransactionManager transactionManager,
+        @Value("${citycab.import.threads:0}") int threads,
+        @Value("${citycab.import.chunk-size:5000}") int chunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.roleCatalog = roleCatalog;
+        this.validator = validator;
+        // Comme pour le provisioning : le pool borné des logins n'est pas fait pour un import
+        this.passwordHasher = passwordEncoder instanceof BoundedPasswordEncoder bounded
+            ? bounded.getDelegate()
+            : passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Importe le flux jusqu'au bout. Une ligne invalide ou en doublon est signalée et ignorée ;
+     * un lot rejeté par la base est signalé ligne à ligne sans arrêter l'import.
+     *
+     * @param passwordsHashed les mots de passe sont déjà des hash BCrypt (migration depuis un autre système),
+     *                        réservé au ROOTADMIN : l'appelant connaîtrait sinon les mots de passe des comptes créés
+     */
+    public ImportProgress importUsers(
+        InputStream input,
+        ImportFormat format,
+        boolean passwordsHashed,
+        AssignableRoles caller,
+        ImportListener listener
+    ) throws IOException {
+        if (passwordsHashed && !caller.isRootAdmin()) {
+            throw new AccessDeniedException("Importing pre-hashed passwords is reserved to ROOTADMIN");
+        }
+        ImportJob job = new ImportJob(listener, caller);
+        Map<String, Optional<RoleCatalog.CatalogRole>> roles = new HashMap<>();
+
+        try (RowSource source = format == ImportFormat.CSV ? new CsvSource(input) : new JsonSource(input)) {
+            // Le lot N est haché pendant que le lot N-1 est chargé : CPU et base travaillent en même temps
+            CompletableFuture<List<ImportRow>> pending = null;
+            List<ImportRow> chunk;
+            while (!(chunk = readChunk(source, roles, job)).isEmpty()) {
+                CompletableFuture<List<ImportRow>> hashed = hash(chunk, passwordsHashed);
+                if (pending != null) {
+                    load(pending.join(), job);
+                }
+                pending = hashed;
+            }
+            if (pending != null) {
+                load(pending.join(), job);
+            }
+        }
+
+        ImportProgress summary = job.progress("summary");
+        log.info("User import finished: {} processed, {} imported, {} failed in {} ms",
+            summary.getProcessed(), summary.getImported(), summary.getFailed(), summary.getDurationMs());
+        return summary;
+    }
+
+    private List<ImportRow> readChunk(RowSource source, Map<String, Optional<RoleCatalog.CatalogRole>> roles, ImportJob job) throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        ImportRow row;
+        while (chunk.size() < chunkSize && (row = source.next()) != null) {
+            job.processed++;
+            String error = row.error != null ? row.error : validate(row, roles, job.caller);
+            if (error != null) {
+                job.rowError(row.line, row.data != null ? row.data.getEmail() : null, error);
+                continue;
+            }
+            row.id = idTemplate.buildId();
+            chunk.add(row);
+        }
+        return chunk;
+    }
+
+    private String validate(ImportRow row, Map<String, Optional<RoleCatalog.CatalogRole>> roles, AssignableRoles caller) {
+        Set<ConstraintViolation<ProvisionUserRequest>> violations = validator.validate(row.data);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<ProvisionUserRequest> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        if (row.data.getUserType() == null) {
+            row.data.setUserType(UserRole.DRIVER);
+        }
+        if (!caller.canAssign(row.data.getUserType())) {
+            return "userType: cannot assign " + row.data.getUserType();
+        }
+
+        String roleCode = row.data.getRoleCode();
+        if (roleCode != null) {
+            // Une seule résolution par code pour tout le fichier
+            RoleCatalog.CatalogRole role = roles.computeIfAbsent(roleCode, roleCatalog::findByCode).orElse(null);
+            if (role == null) {
+                return "Unknown role: " + roleCode;
+            }
+            if (!caller.canAssign(role)) {
+                return "roleCode: cannot assign " + roleCode;
+            }
+            row.roleId = role.id();
+        }
+        return null;
+    }
+
+    private CompletableFuture<List<ImportRow>> hash(List<ImportRow> chunk, boolean passwordsHashed) {
+        // Une tâche par tranche plutôt que par ligne : peu d'objets pour un lot de plusieurs milliers
+        int slice = Math.max(1, (chunk.size() + threads - 1) / threads);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += slice) {
+            List<ImportRow> rows = chunk.subList(from, Math.min(from + slice, chunk.size()));
+            futures.add(CompletableFuture.runAsync(() -> rows.forEach(row -> hash(row, passwordsHashed)), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(done -> chunk);
+    }
+
+    private void hash(ImportRow row, boolean passwordsHashed) {
+        String password = row.data.getPassword();
+        if (passwordsHashed) {
+            if (BCRYPT_HASH.matcher(password).matches()) {
+                row.passwordHash = password;
+            } else {
+                row.error = "password: not a BCrypt hash";
+            }
+            return;
+        }
+        try {
+            row.passwordHash = passwordHasher.encode(password);
+        } catch (IllegalArgumentException e) {
+            // BCrypt refuse les mots de passe de plus de 72 octets
+            row.error = "password: " + e.getMessage();
+        }
+    }
+
+    private void load(List<ImportRow> chunk, ImportJob job) {
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                job.rowError(row.line, row.data.getEmail(), row.error);
+            } else {
+                rows.add(row);
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            try {
+                List<ImportRowError> rejected = transactionTemplate.execute(status ->
+                    jdbcTemplate.execute((ConnectionCallback<List<ImportRowError>>) connection -> copy(connection, rows)));
+                job.imported += rows.size() - rejected.size();
+                rejected.forEach(job::rowError);
+            } catch (RuntimeException e) {
+                log.warn("User import chunk starting at line {} failed: {}", rows.get(0).line, e.getMessage());
+                String message = "Chunk rejected: " + rootMessage(e);
+                rows.forEach(row -> job.rowError(row.line, row.data.getEmail(), message));
+            }
+        }
+
+        job.listener.onProgress(job.progress("progress"));
+    }
+
+    private List<ImportRowError> copy(Connection connection, List<ImportRow> rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        copyIn(connection, toCsv(rows));
+
+        List<ImportRowError> rejected = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(INSERT_USERS)) {
+                while (resultSet.next()) {
+                    rejected.add(ImportRowError.builder()
+                        .line(resultSet.getLong(1))
+                        .email(resultSet.getString(2))
+                        .error("Email or phone already registered")
+                        .build());
+                }
+            }
+            statement.executeUpdate(INSERT_USER_ROLES);
+        }
+        return rejected;
+    }
+
+    // Seul appel propre au pilote PostgreSQL
+    void copyIn(Connection connection, String csv) throws SQLException {
+        try {
+            connection.unwrap(PGConnection.class)
+                .getCopyAPI()
+                .copyIn(COPY_STAGING, new StringReader(csv));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(List<ImportRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 256);
+        for (ImportRow row : rows) {
+            ProvisionUserRequest data = row.data;
+            csv.append(row.line);
+            appendCsv(csv, row.id);
+            appendCsv(csv, data.getEmail());
+            appendCsv(csv, data.getPhone());
+            appendCsv(csv, data.getFirstName());
+            appendCsv(csv, data.getLastName());
+            appendCsv(csv, row.passwordHash);
+            appendCsv(csv, data.getUserType().name());
+            appendCsv(csv, data.getCountryCode());
+            appendCsv(csv, data.getCity());
+            appendCsv(csv, data.getCityId());
+            appendCsv(csv, row.roleId);
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    // Champ vide non quoté = NULL pour COPY, tout le reste est quoté
+    static void appendCsv(StringBuilder csv, String value) {
+        csv.append(',');
+        if (value == null) {
+            return;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class ImportJob {
+        private final ImportListener listener;
+        private final AssignableRoles caller;
+        private final long start = System.nanoTime();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private ImportJob(ImportListener listener, AssignableRoles caller) {
+            this.listener = listener;
+            this.caller = caller;
+        }
+
+        private void rowError(long line, String email, String error) {
+            rowError(ImportRowError.builder().line(line).email(email).error(error).build());
+        }
+
+        private void rowError(ImportRowError error) {
+            failed++;
+            listener.onRowError(error);
+        }
+
+        private ImportProgress progress(String type) {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return ImportProgress.builder()
+                .type(type)
+                .processed(processed)
+                .imported(imported)
+                .failed(failed)
+                .durationMs(durationMs)
+                .rowsPerSecond(durationMs > 0 ? processed * 1000 / durationMs : processed)
+                .build();
+        }
+    }
+
+    private static final class ImportRow {
+        private final long line;
+        private final ProvisionUserRequest data;
+        private String error;
+        private String id;
+        private String roleId;
+        private String passwordHash;
+
+        private ImportRow(long line, ProvisionUserRequest data, String error) {
+            this.line = line;
+            this.data = data;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource extends Closeable {
+        // Enregistrement suivant, null en fin de flux
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * CSV avec ligne d'en-tête ; colonnes reconnues sans tenir compte de la casse ni des '_' / '-'
+     */
+    private static final class CsvSource implements RowSource {
+        private final CsvRowReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private CsvSource(InputStream input) throws IOException {
+            this.reader = new CsvRowReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""), i);
+            }
+            if (!columns.containsKey("email") || !columns.containsKey("password")) {
+                throw new IllegalArgumentException("CSV header must contain email and password columns");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> values = reader.next();
+            if (values == null) {
+                return null;
+            }
+
+            ProvisionUserRequest data = new ProvisionUserRequest();
+            data.setEmail(value(values, "email"));
+            data.setPassword(value(values, "password"));
+            data.setPhone(value(values, "phone"));
+            data.setFirstName(value(values, "firstname"));
+            data.setLastName(value(values, "lastname"));
+            data.setCountryCode(value(values, "countrycode"));
+            data.setCity(value(values, "city"));
+            data.setCityId(value(values, "cityid"));
+            String roleCode = value(values, "rolecode");
+            data.setRoleCode(roleCode != null ? roleCode : value(values, "role"));
+
+            String userType = value(values, "usertype");
+            if (userType != null) {
+                try {
+                    data.setUserType(UserRole.valueOf(userType.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    return new ImportRow(reader.getRecordLine(), data, "userType: unknown value " + userType);
+                }
+            }
+            return new ImportRow(reader.getRecordLine(), data, null);
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tableau JSON ou NDJSON, désérialisé objet par objet
+     */
+    private static final class JsonSource implements RowSource {
+        private final JsonParser parser;
+        private final MappingIterator<ProvisionUserRequest> iterator;
+
+        private JsonSource(InputStream input) throws IOException {
+            // readValues(InputStream) déroule un tableau racine ; sinon une valeur après l'autre
+            this.iterator = ROW_READER.readValues(input);
+            this.parser = iterator.getParser();
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (!iterator.hasNextValue()) {
+                return null;
+            }
+            long line = parser.currentTokenLocation().getLineNr();
+            try {
+                return new ImportRow(line, iterator.nextValue(), null);
+            } catch (JsonMappingException e) {
+                // Valeur mal typée : l'itérateur se resynchronise sur l'objet suivant
+                return new ImportRow(line, null, e.getOriginalMessage());
+            } catch (JsonProcessingException e) {
+                // JSON mal formé : impossible de reprendre
+                throw new IllegalArgumentException("Malformed JSON at line " + line + ": " + e.getOriginalMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            iterator.close();
+        }
+    }
+}
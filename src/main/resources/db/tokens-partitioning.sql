@@ -0,0 +1,44 @@
+-- Conversion de la table tokens en table partitionnée par mois d'expiration.
+-- A exécuter pendant une fenêtre de maintenance, avec spring.jpa.hibernate.ddl-auto à validate ou none.
+-- Ensuite, activer citycab.tokens.partitioning.enabled : TokenPartitionService crée les partitions
+-- à venir et supprime celles dont tous les tokens ont expiré.
+--
+-- Remarque : la date incluse dans l'id (TokenEntity.includeDateInId) ne peut pas servir de clé :
+-- PostgreSQL exige que la clé primaire contienne la colonne de partitionnement, pas une expression.
+-- La contrainte d'unicité sur token_hash devient (token_hash, expires_at) pour la même raison.
+
+BEGIN;
+
+UPDATE tokens SET expires_at = now() WHERE expires_at IS NULL;
+
+ALTER TABLE tokens RENAME TO tokens_legacy;
+
+CREATE TABLE tokens (LIKE tokens_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (expires_at);
+ALTER TABLE tokens ALTER COLUMN expires_at SET NOT NULL;
+ALTER TABLE tokens ADD PRIMARY KEY (id, expires_at);
+ALTER TABLE tokens ADD CONSTRAINT tokens_token_hash_key UNIQUE (token_hash, expires_at);
+ALTER TABLE tokens ADD CONSTRAINT tokens_user_fk FOREIGN KEY (user_id) REFERENCES users (id);
+CREATE INDEX tokens_user_id_idx ON tokens (user_id);
+
+-- Partitions du mois courant et des deux suivants (même nommage que TokenPartitionService)
+DO $$
+DECLARE
+    first_month date := date_trunc('month', now());
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format(
+            'CREATE TABLE tokens_p%s PARTITION OF tokens FOR VALUES FROM (%L) TO (%L)',
+            to_char(first_month + make_interval(months => i), 'YYYYMM'),
+            first_month + make_interval(months => i),
+            first_month + make_interval(months => i + 1)
+        );
+    END LOOP;
+END $$;
+
+-- Partition par défaut pour les lignes hors des plages mensuelles
+CREATE TABLE tokens_default PARTITION OF tokens DEFAULT;
+
+INSERT INTO tokens SELECT * FROM tokens_legacy;
+DROP TABLE tokens_legacy;
+
+COMMIT;
@@ -0,0 +1,83 @@
+package com.citycab.app.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRowReaderTest {
+
+    @Test
+    void keepsNewlinesInsideQuotedFields() throws Exception {
+        CsvRowReader reader = reader("email,address\na@citycab.test,\"12 rue Haute\nBP 45\"\nb@citycab.test,Douala\n");
+
+        assertEquals(List.of("email", "address"), reader.next());
+        assertEquals(List.of("a@citycab.test", "12 rue Haute\nBP 45"), reader.next());
+        assertEquals(2, reader.getRecordLine());
+        // La ligne suivante tient compte du retour à la ligne dans le champ
+        assertEquals(List.of("b@citycab.test", "Douala"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unescapesDoubledQuotes() throws Exception {
+        CsvRowReader reader = reader("\"Say \"\"hi\"\"\",\"\"\"\",\"a,b\"\n");
+
+        assertEquals(List.of("Say \"hi\"", "\"", "a,b"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void acceptsCrLfAndLoneCr() throws Exception {
+        CsvRowReader reader = reader("a,b\r\nc,d\re,f\r\n\r\ng,h");
+
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertEquals(List.of("e", "f"), reader.next());
+        assertEquals(3, reader.getRecordLine());
+        // Ligne vide ignorée, dernier enregistrement sans fin de ligne
+        assertEquals(List.of("g", "h"), reader.next());
+        assertEquals(5, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void skipsUtf8ByteOrderMark() throws Exception {
+        CsvRowReader reader = reader("\uFEFFemail,password\n");
+
+        assertEquals(List.of("email", "password"), reader.next());
+    }
+
+    @Test
+    void trimsOnlyUnquotedFields() throws Exception {
+        CsvRowReader reader = reader(" a ,\" b \",,\"\"\n");
+
+        assertEquals(List.of("a", " b ", "", ""), reader.next());
+    }
+
+    @Test
+    void usesConfiguredSeparator() throws Exception {
+        CsvRowReader reader = new CsvRowReader(new StringReader("a;\"b;c\"\n"), ';');
+
+        assertEquals(List.of("a", "b;c"), reader.next());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() throws Exception {
+        CsvRowReader reader = reader("ok,line\n\"never closed\nstill inside");
+
+        assertEquals(List.of("ok", "line"), reader.next());
+        IOException error = assertThrows(IOException.class, reader::next);
+        assertEquals("Unterminated quoted field starting at line 2", error.getMessage());
+    }
+
+    private static CsvRowReader reader(String csv) {
+        return new CsvRowReader(new StringReader(csv));
+    }
+}
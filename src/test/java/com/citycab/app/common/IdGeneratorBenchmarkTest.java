@@ -0,0 +1,173 @@
+package com.citycab.app.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.citycab.app.entities.TokenEntity;
+import com.citycab.app.entities.UserEntity;
+
+/**
+ * Compare l'ancien schéma d'id (UUID tronqué + DateTimeFormatter à chaque insert)
+ * au générateur ordonné dans le temps : débit de génération et localité dans un index B-tree.
+ * La mesure de débit ne tourne qu'avec le profil benchmark (mvn test -Pbenchmark).
+ */
+class IdGeneratorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorBenchmarkTest.class);
+
+    private static final int IDS = 200_000;
+    // Clés par feuille d'index, ordre de grandeur d'une page PostgreSQL de 8 Ko pour ces longueurs
+    private static final int KEYS_PER_PAGE = 128;
+    private static final int RECENT_INSERTS = 1_000;
+
+    @Test
+    @Tag("benchmark")
+    void compareGenerationThroughput() {
+        UserEntity user = UserEntity.builder().build();
+        TokenEntity token = TokenEntity.builder().build();
+
+        Map<String, Supplier<String>> generators = new LinkedHashMap<>();
+        Map<String, Double> idsPerSecond = new HashMap<>();
+        generators.put("users  legacy", () -> legacyId("USER", "", 10, false));
+        generators.put("users  ordered", user::buildId);
+        generators.put("tokens legacy", () -> legacyId("TOK", "-", 32, true));
+        generators.put("tokens ordered", token::buildId);
+
+        for (Map.Entry<String, Supplier<String>> entry : generators.entrySet()) {
+            for (int i = 0; i < 20_000; i++) {
+                entry.getValue().get();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < IDS; i++) {
+                entry.getValue().get();
+            }
+            long nanos = System.nanoTime() - start;
+            idsPerSecond.put(entry.getKey(), IDS / (nanos / 1_000_000_000.0));
+            log.info("{} {} ids/s", entry.getKey(), String.format("%12.0f", idsPerSecond.get(entry.getKey())));
+        }
+
+        // Plus de UUID ni de DateTimeFormatter par id
+        assertTrue(idsPerSecond.get("users  ordered") > idsPerSecond.get("users  legacy"), idsPerSecond.toString());
+        assertTrue(idsPerSecond.get("tokens ordered") > idsPerSecond.get("tokens legacy"), idsPerSecond.toString());
+    }
+
+    @Test
+    void orderedIdsKeepInsertsOnTheRightEdgeOfTheIndex() {
+        UserEntity user = UserEntity.builder().build();
+        TokenEntity token = TokenEntity.builder().build();
+
+        int legacyUsers = recentPagesTouched(() -> legacyId("USER", "", 10, false));
+        int orderedUsers = recentPagesTouched(user::buildId);
+        int legacyTokens = recentPagesTouched(() -> legacyId("TOK", "-", 32, true));
+        int orderedTokens = recentPagesTouched(token::buildId);
+
+        int appendOnly = RECENT_INSERTS / KEYS_PER_PAGE + 2;
+        assertTrue(orderedUsers <= appendOnly, "users ids should be appended: " + orderedUsers);
+        assertTrue(orderedTokens <= appendOnly, "tokens ids should be appended: " + orderedTokens);
+        assertTrue(legacyUsers > orderedUsers * 10, "legacy users ids touched " + legacyUsers + " pages");
+        assertTrue(legacyTokens > orderedTokens * 10, "legacy tokens ids touched " + legacyTokens + " pages");
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreadsAndIncreasingWithinOne() throws Exception {
+        MonotonicIdGenerator generator = new MonotonicIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Boolean> ordered = new CopyOnWriteArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                String previous = "";
+                boolean increasing = true;
+                for (int i = 0; i < perThread; i++) {
+                    String id = generator.nextId(10);
+                    increasing &= id.compareTo(previous) > 0;
+                    previous = id;
+                    ids.add(id);
+                }
+                ordered.add(increasing);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+        assertTrue(ordered.stream().allMatch(Boolean::booleanValue), "ids must increase within a thread");
+    }
+
+    @Test
+    void keepsEntityPrefixes() {
+        String userId = UserEntity.builder().build().buildId();
+        String tokenId = TokenEntity.builder().build().buildId();
+
+        assertTrue(userId.startsWith("USER"), userId);
+        assertEquals(4 + 13 + 10, userId.length());
+        assertTrue(tokenId.startsWith("TOK-"), tokenId);
+    }
+
+    /**
+     * Nombre de feuilles d'index distinctes touchées par les dernières insertions
+     */
+    private static int recentPagesTouched(Supplier<String> generator) {
+        List<String> inserted = new ArrayList<>(IDS);
+        for (int i = 0; i < IDS; i++) {
+            inserted.add(generator.get());
+        }
+        List<String> sorted = new ArrayList<>(inserted);
+        sorted.sort(null);
+        Map<String, Integer> rank = new HashMap<>(IDS * 2);
+        for (int i = 0; i < sorted.size(); i++) {
+            rank.put(sorted.get(i), i);
+        }
+
+        Set<Integer> pages = new HashSet<>();
+        for (String id : inserted.subList(IDS - RECENT_INSERTS, IDS)) {
+            pages.add(rank.get(id) / KEYS_PER_PAGE);
+        }
+        return pages.size();
+    }
+
+    // Ancienne implémentation de BaseEntity.generateId
+    private static String legacyId(String prefix, String separator, int randomLength, boolean includeDate) {
+        String randomPart = UUID.randomUUID().toString().replace("-", "").substring(0, randomLength);
+        StringBuilder sb = new StringBuilder();
+        sb.append(prefix).append(separator).append(randomPart);
+        if (includeDate) {
+            sb.append(separator).append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
+        }
+        return sb.toString();
+    }
+}
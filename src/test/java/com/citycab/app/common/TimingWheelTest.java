@@ -0,0 +1,69 @@
+package com.citycab.app.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEachItemExactlyOnce() {
+        long start = 1_700_000_000_000L;
+        // 10 ms x 8 cases x 3 niveaux : ~5 s couverts, au-delà redistribué depuis le niveau haut
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 3, start);
+        Random random = new Random(42);
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(i, start + random.nextInt(20_000));
+        }
+
+        int[] fired = new int[count];
+        for (long now = start; now <= start + 21_000; now += 7 + random.nextInt(40)) {
+            wheel.advance(now, item -> fired[item]++);
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(1, fired[i], "item " + i);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void neverFiresEarlyNorLaterThanOneTick() {
+        long start = 1_000_003L;
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 3, start);
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = start + random.nextInt(30_000);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = start; now <= start + 31_000; now += 10) {
+            long current = now;
+            wheel.advance(now, deadline -> fired.add(new long[] { deadline, current }));
+        }
+
+        assertEquals(5_000, fired.size());
+        for (long[] event : fired) {
+            assertTrue(event[1] >= event[0], "fired before deadline " + event[0] + " at " + event[1]);
+            assertTrue(event[1] - event[0] < 20, "fired too late " + event[0] + " at " + event[1]);
+        }
+    }
+
+    @Test
+    void itemsScheduledInThePastFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 64, 3, 0);
+        wheel.advance(5_000, item -> { });
+        wheel.schedule("late", 1_000);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+}
@@ -0,0 +1,62 @@
+package com.citycab.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import com.citycab.app.enums.UserRole;
+
+class AssignableRolesTest {
+
+    @Test
+    void adminCannotAssignAboveItsOwnRank() {
+        AssignableRoles admin = caller("ADMIN", "user:create");
+
+        assertFalse(admin.isRootAdmin());
+        assertFalse(admin.canAssign(UserRole.ROOTADMIN));
+        assertTrue(admin.canAssign(UserRole.ADMIN));
+        assertTrue(admin.canAssign(UserRole.DRIVER));
+        assertFalse(admin.canAssign(role("ROOTADMIN")));
+        assertTrue(admin.canAssign(role("DRIVER", "ride:accept")));
+    }
+
+    @Test
+    void customRoleNeedsEveryPermissionOfTheCaller() {
+        AssignableRoles admin = caller("ADMIN", "user:create", "ride:read");
+
+        assertTrue(admin.canAssign(role("FLEET_VIEWER", "ride:read")));
+        assertFalse(admin.canAssign(role("FLEET_OPS", "ride:read", "payout:approve")));
+    }
+
+    @Test
+    void callerWithoutRankAssignsNothing() {
+        AssignableRoles service = caller("SERVICE");
+
+        assertFalse(service.canAssign(UserRole.USER));
+        assertFalse(service.canAssign(role("USER")));
+        assertFalse(AssignableRoles.of(null).canAssign(UserRole.USER));
+    }
+
+    @Test
+    void rootAdminAssignsEverything() {
+        AssignableRoles root = caller("ROOTADMIN");
+
+        assertTrue(root.isRootAdmin());
+        assertTrue(root.canAssign(UserRole.ROOTADMIN));
+        assertTrue(root.canAssign(role("ROOTADMIN")));
+    }
+
+    private static AssignableRoles caller(String... authorities) {
+        return AssignableRoles.of(new UsernamePasswordAuthenticationToken(
+            "caller", null, AuthorityUtils.createAuthorityList(authorities)));
+    }
+
+    private static RoleCatalog.CatalogRole role(String code, String... permissions) {
+        return RoleCatalog.CatalogRole.of("ROL-" + code, code, code, Set.of(permissions));
+    }
+}
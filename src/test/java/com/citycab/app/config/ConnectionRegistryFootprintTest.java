@@ -0,0 +1,81 @@
+package com.citycab.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.citycab.app.enums.ConnectionType;
+import com.citycab.app.enums.UserRole;
+
+/**
+ * Empreinte mémoire du registre WebSocket, pour dimensionner les nœuds.
+ * Chaque session : UUID, utilisateur distinct, 1 ville sur 50, 75 % de chauffeurs,
+ * deux abonnements (topic chauffeur personnel + topic de la ville).
+ * Les chaînes ville / pays sont recréées à chaque session, comme après parsing d'un JWT.
+ * Mesure par GC forcé, lente et gourmande en heap : profil benchmark seulement (mvn test -Pbenchmark).
+ */
+@Tag("benchmark")
+class ConnectionRegistryFootprintTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionRegistryFootprintTest.class);
+
+    private static final int CITIES = 50;
+    // Budget par session, chaînes d'identifiants comprises (≈1 400 octets avant compactage)
+    private static final long MAX_BYTES_PER_SESSION = 900;
+    // Marge de heap demandée par session mesurée : pas d'OutOfMemoryError sur un petit heap de CI
+    private static final long HEAP_BYTES_PER_SESSION = 4 * MAX_BYTES_PER_SESSION;
+
+    @Test
+    void footprintAt100kSessions() throws InterruptedException {
+        measure(100_000);
+    }
+
+    @Test
+    void footprintAt500kSessions() throws InterruptedException {
+        measure(500_000);
+    }
+
+    private static void measure(int sessions) throws InterruptedException {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assumeTrue(maxHeap >= sessions * HEAP_BYTES_PER_SESSION,
+            "heap too small for " + sessions + " sessions: " + maxHeap / (1024 * 1024) + " MiB");
+        long before = usedHeap();
+
+        ConnectionRegistry registry = new ConnectionRegistry(300_000);
+        for (int i = 0; i < sessions; i++) {
+            String sessionId = UUID.randomUUID().toString();
+            String userId = "USER-" + Integer.toString(i, 36) + "-ABCDEFGHIJ";
+            String cityId = new String("CITY-" + (i % CITIES));
+            UserRole userType = i % 4 == 0 ? UserRole.USER : UserRole.DRIVER;
+            registry.registerConnection(sessionId, userId, userType, cityId, new String("CM"), ConnectionType.MOBILE);
+            registry.addSubscription(sessionId, userId, "sub-0", "/topic/driver/" + userId);
+            registry.addSubscription(sessionId, userId, "sub-1", "/topic/city/" + cityId);
+        }
+
+        long after = usedHeap();
+        long bytesPerSession = (after - before) / sessions;
+        log.info("ConnectionRegistry: {} sessions -> {} MiB, {} bytes/session",
+            sessions, (after - before) / (1024 * 1024), bytesPerSession);
+
+        assertEquals(sessions, registry.getConnectionCount());
+        assertTrue(bytesPerSession < MAX_BYTES_PER_SESSION, bytesPerSession + " bytes/session");
+        Reference.reachabilityFence(registry);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
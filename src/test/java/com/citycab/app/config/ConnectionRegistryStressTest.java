@@ -0,0 +1,200 @@
+package com.citycab.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.citycab.app.enums.ConnectionType;
+import com.citycab.app.enums.UserRole;
+
+/**
+ * Mises à jour concurrentes du registre WebSocket : après chaque tempête de connexions /
+ * déconnexions / abonnements, tous les index doivent correspondre exactement aux connexions présentes.
+ * Peu de sessions, d'utilisateurs et de villes pour maximiser la contention sur les mêmes clés.
+ */
+class ConnectionRegistryStressTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 200_000;
+    private static final int SESSIONS = 64;
+    private static final int USERS = 16;
+    private static final int CITIES = 4;
+
+    @Test
+    void indexesStayConsistentUnderRandomOperations() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            ConnectionRegistry registry = new ConnectionRegistry(300_000);
+            runConcurrently(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    String sessionId = "s" + random.nextInt(SESSIONS);
+                    String userId = "u" + random.nextInt(USERS);
+                    int op = random.nextInt(10);
+                    if (op < 3) {
+                        registry.registerConnection(sessionId, userId, random.nextBoolean() ? UserRole.DRIVER : UserRole.USER,
+                            "c" + random.nextInt(CITIES), "CM", ConnectionType.MOBILE);
+                    } else if (op < 5) {
+                        registry.removeConnection(sessionId);
+                    } else if (op < 8) {
+                        registry.addSubscription(sessionId, userId, "sub-" + random.nextInt(3), destination(random));
+                    } else {
+                        registry.removeSubscription(sessionId, "sub-" + random.nextInt(3));
+                    }
+                }
+            });
+            assertConsistent(registry);
+        }
+    }
+
+    @Test
+    void reconnectRacingDisconnectKeepsNewSession() throws Exception {
+        // Le scénario du bug : removeConnection(s1) et registerConnection(s2) pour le même utilisateur
+        for (int i = 0; i < 20_000; i++) {
+            ConnectionRegistry registry = new ConnectionRegistry(300_000);
+            registry.registerConnection("s1", "u1", UserRole.DRIVER, "c1", "CM", ConnectionType.MOBILE);
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread disconnect = new Thread(() -> {
+                await(start);
+                registry.removeConnection("s1");
+            });
+            Thread reconnect = new Thread(() -> {
+                await(start);
+                registry.registerConnection("s2", "u1", UserRole.DRIVER, "c1", "CM", ConnectionType.MOBILE);
+            });
+            disconnect.start();
+            reconnect.start();
+            start.countDown();
+            disconnect.join();
+            reconnect.join();
+
+            assertEquals(Set.of("s2"), registry.getUserSessions("u1"), "iteration " + i);
+            assertEquals(Set.of("u1"), registry.getUsersInCity("c1"), "iteration " + i);
+            assertEquals(1, registry.getActiveDriverCount("c1"), "iteration " + i);
+        }
+    }
+
+    @Test
+    void userStaysInCityWhileAnySessionIsOpen() {
+        ConnectionRegistry registry = new ConnectionRegistry(300_000);
+        registry.registerConnection("s1", "u1", UserRole.DRIVER, "c1", "CM", ConnectionType.MOBILE);
+        registry.registerConnection("s2", "u1", UserRole.DRIVER, "c1", "CM", ConnectionType.WEB);
+
+        registry.removeConnection("s1");
+        assertEquals(Set.of("u1"), registry.getUsersInCity("c1"));
+
+        registry.removeConnection("s2");
+        assertTrue(registry.getUsersInCity("c1").isEmpty());
+    }
+
+    @Test
+    void expiredSessionIsClosedAndLaterSubscriptionsForceReconnect() throws Exception {
+        List<String> closed = new ArrayList<>();
+        ConnectionRegistry registry = new ConnectionRegistry(1_000, closed::add);
+        registry.registerConnection("s1", "u1", UserRole.DRIVER, "c1", "CM", ConnectionType.MOBILE);
+        registry.registerConnection("s2", "u2", UserRole.DRIVER, "c1", "CM", ConnectionType.MOBILE);
+
+        // Échéance arrondie au tick d'une seconde de la roue
+        Thread.sleep(3_100);
+        registry.updateLastActivity("s2");
+        registry.expireIdleConnections();
+
+        assertNull(registry.getConnection("s1"));
+        assertEquals(List.of("s1"), closed);
+
+        // SUBSCRIBE arrivé après l'expiration : la connexion est fermée, pas ignorée en silence
+        registry.addSubscription("s1", "u1", "sub-0", "/topic/city/c1");
+        assertEquals(List.of("s1", "s1"), closed);
+        assertTrue(registry.getSessionsSubscribedTo("/topic/city/c1").isEmpty());
+    }
+
+    private static String destination(ThreadLocalRandom random) {
+        return random.nextBoolean()
+            ? "/topic/city/c" + random.nextInt(CITIES)
+            : "/topic/driver/u" + random.nextInt(USERS);
+    }
+
+    /**
+     * Reconstruit les index attendus depuis les connexions présentes et les compare au registre
+     */
+    private static void assertConsistent(ConnectionRegistry registry) {
+        Map<String, Set<String>> userSessions = new HashMap<>();
+        Map<String, Set<String>> cityUsers = new HashMap<>();
+        Map<String, Set<String>> cityDrivers = new HashMap<>();
+        Map<String, Set<String>> destinationSessions = new HashMap<>();
+
+        List<ConnectionRegistry.ConnectionInfo> connections = registry.getActiveConnections();
+        assertEquals(registry.getConnectionCount(), connections.size());
+        for (ConnectionRegistry.ConnectionInfo info : connections) {
+            userSessions.computeIfAbsent(info.getUserId(), k -> new HashSet<>()).add(info.getSessionId());
+            cityUsers.computeIfAbsent(info.getCityId(), k -> new HashSet<>()).add(info.getUserId());
+            if (info.getUserType() == UserRole.DRIVER) {
+                cityDrivers.computeIfAbsent(info.getCityId(), k -> new HashSet<>()).add(info.getSessionId());
+            }
+            for (String destination : info.getSubscribedDestinations()) {
+                destinationSessions.computeIfAbsent(destination, k -> new HashSet<>()).add(info.getSessionId());
+            }
+        }
+
+        for (int u = 0; u < USERS; u++) {
+            String userId = "u" + u;
+            assertEquals(userSessions.getOrDefault(userId, Set.of()), registry.getUserSessions(userId), "sessions of " + userId);
+            String driverTopic = "/topic/driver/" + userId;
+            assertEquals(destinationSessions.getOrDefault(driverTopic, Set.of()), registry.getSessionsSubscribedTo(driverTopic), driverTopic);
+        }
+        for (int c = 0; c < CITIES; c++) {
+            String cityId = "c" + c;
+            assertEquals(cityUsers.getOrDefault(cityId, Set.of()), registry.getUsersInCity(cityId), "users in " + cityId);
+            Set<String> drivers = cityDrivers.getOrDefault(cityId, Set.of());
+            assertEquals(drivers, registry.getSessionsInCity(cityId, UserRole.DRIVER), "drivers in " + cityId);
+            assertEquals(drivers.size(), registry.getActiveDriverCount(cityId), "driver count in " + cityId);
+            String cityTopic = "/topic/city/" + cityId;
+            assertEquals(destinationSessions.getOrDefault(cityTopic, Set.of()), registry.getSessionsSubscribedTo(cityTopic), cityTopic);
+        }
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                await(start);
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("Worker failed", failure.get());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.citycab.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import com.nimbusds.jose.jwk.JWK;
+
+/**
+ * Compare le débit signature / vérification des algorithmes supportés par JwtKeyRing.
+ * La mesure ne tourne qu'avec le profil benchmark (mvn test -Pbenchmark).
+ */
+class JwtSigningBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtSigningBenchmarkTest.class);
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    @Tag("benchmark")
+    void compareSignAndVerifyThroughput() throws Exception {
+        Map<String, JwtKeyRing> keyRings = new LinkedHashMap<>();
+        keyRings.put("RS256 / RSA-4096", keyRing(SignatureAlgorithm.RS256, "rsa-4096", rsaKeyPair(4096), List.of()));
+        keyRings.put("RS256 / RSA-2048", keyRing(SignatureAlgorithm.RS256, "rsa-2048", rsaKeyPair(2048), List.of()));
+        keyRings.put("ES256 / P-256", keyRing(SignatureAlgorithm.ES256, "ec-p256", ecKeyPair(), List.of()));
+        Map<String, Double> signPerSecond = new LinkedHashMap<>();
+
+        for (Map.Entry<String, JwtKeyRing> entry : keyRings.entrySet()) {
+            JwtKeyRing keyRing = entry.getValue();
+            JwtEncoder encoder = new NimbusJwtEncoder(keyRing.jwkSource());
+            JwtDecoder decoder = decoder(keyRing);
+
+            for (int i = 0; i < WARMUP; i++) {
+                decoder.decode(sign(encoder, keyRing, "warmup-" + i));
+            }
+
+            List<String> tokens = new ArrayList<>(ITERATIONS);
+            long signStart = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                tokens.add(sign(encoder, keyRing, "user-" + i));
+            }
+            long signNanos = System.nanoTime() - signStart;
+
+            long verifyStart = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                assertEquals("user-" + i, decoder.decode(tokens.get(i)).getSubject());
+            }
+            long verifyNanos = System.nanoTime() - verifyStart;
+
+            signPerSecond.put(entry.getKey(), opsPerSecond(signNanos));
+            log.info("{} sign: {} ops/s   verify: {} ops/s", entry.getKey(),
+                String.format("%10.1f", opsPerSecond(signNanos)), String.format("%10.1f", opsPerSecond(verifyNanos)));
+        }
+
+        // Signature RSA en O(n^3) sur la taille de clé
+        assertTrue(signPerSecond.get("RS256 / RSA-2048") > signPerSecond.get("RS256 / RSA-4096"), signPerSecond.toString());
+    }
+
+    @Test
+    void tokensSignedWithPreviousKeyStillVerify() throws Exception {
+        KeyPair rsa = rsaKeyPair(2048);
+        JwtKeyRing previous = keyRing(SignatureAlgorithm.RS256, "citycab-RSA-Key", rsa, List.of());
+        String issuedBeforeMigration = sign(new NimbusJwtEncoder(previous.jwkSource()), previous, "driver-1");
+
+        JwtKeyRing migrated = keyRing(SignatureAlgorithm.ES256, "citycab-EC-Key", ecKeyPair(), List.of(
+            JwtKeyRing.toJwk(SignatureAlgorithm.RS256, "citycab-RSA-Key", rsa.getPublic(), null)
+        ));
+        String issuedAfterMigration = sign(new NimbusJwtEncoder(migrated.jwkSource()), migrated, "driver-2");
+
+        JwtDecoder decoder = decoder(migrated);
+        assertEquals("driver-1", decoder.decode(issuedBeforeMigration).getSubject());
+        assertEquals("driver-2", decoder.decode(issuedAfterMigration).getSubject());
+    }
+
+    private static JwtKeyRing keyRing(SignatureAlgorithm algorithm, String keyId, KeyPair keyPair, List<JWK> previous) {
+        return new JwtKeyRing(algorithm, JwtKeyRing.toJwk(algorithm, keyId, keyPair.getPublic(), keyPair.getPrivate()), previous);
+    }
+
+    private static JwtDecoder decoder(JwtKeyRing keyRing) {
+        return NimbusJwtDecoder.withJwkSource(keyRing.jwkSource())
+            .jwsAlgorithms(algorithms -> algorithms.addAll(keyRing.algorithms()))
+            .build();
+    }
+
+    private static String sign(JwtEncoder encoder, JwtKeyRing keyRing, String subject) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .issuer("citycab-app")
+            .issuedAt(now)
+            .expiresAt(now.plus(30, ChronoUnit.MINUTES))
+            .subject(subject)
+            .claim("authorities", List.of("DRIVER"))
+            .build();
+        return encoder.encode(JwtEncoderParameters.from(keyRing.signingHeader(), claims)).getTokenValue();
+    }
+
+    private static KeyPair rsaKeyPair(int size) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(size);
+        return generator.generateKeyPair();
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static double opsPerSecond(long nanos) {
+        return ITERATIONS / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,227 @@
+package com.citycab.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Routage primaire / réplica avec deux DataSources de substitution qui comptent
+ * les connexions réellement ouvertes.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    @Test
+    void onlyReplicaReadsGoToReplica() {
+        StandInDataSource primary = new StandInDataSource();
+        StandInDataSource replica = new StandInDataSource();
+        DataSource dataSource = DatabaseConfig.routingDataSource(primary, replica);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        assertRouting(primary, replica, transactionManager, () -> jdbcTemplate.execute("SELECT 1"));
+
+        // Hors transaction : primaire
+        jdbcTemplate.execute("SELECT 1");
+        assertEquals(4, primary.opened.get(), "non-transactional statement on primary");
+    }
+
+    @Test
+    void jpaTransactionManagerRoutesReplicaReads() {
+        StandInDataSource primary = new StandInDataSource();
+        StandInDataSource replica = new StandInDataSource();
+        DataSource dataSource = DatabaseConfig.routingDataSource(primary, replica);
+        EntityManagerFactory entityManagerFactory = entityManagerFactory(dataSource);
+
+        try {
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            // Requête passée par la Session Hibernate, comme un repository Spring Data
+            assertRouting(primary, replica, transactionManager, () ->
+                EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                    .unwrap(Session.class)
+                    .doWork(connection -> {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                    }));
+
+            // JdbcTemplate dans une transaction JPA : même connexion, même routage
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            new ReplicaReads(transactionManager).execute(() -> {
+                jdbcTemplate.execute("SELECT 1");
+                return null;
+            });
+            assertEquals(2, replica.opened.get(), "JDBC replica read inside JPA transaction");
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    /**
+     * Lecture readOnly simple et écriture sur le primaire, lecture ReplicaReads sur le réplica
+     */
+    private static void assertRouting(
+        StandInDataSource primary,
+        StandInDataSource replica,
+        PlatformTransactionManager transactionManager,
+        Runnable statement
+    ) {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ReplicaReads replicaReads = new ReplicaReads(transactionManager);
+
+        readOnly.executeWithoutResult(status -> statement.run());
+        assertEquals(1, primary.opened.get(), "read-only transaction on primary");
+        assertEquals(0, replica.opened.get(), "read-only transaction on replica");
+
+        replicaReads.execute(() -> {
+            statement.run();
+            return null;
+        });
+        assertEquals(1, replica.opened.get(), "replica read on replica");
+        assertEquals(1, primary.opened.get(), "replica read on primary");
+
+        readWrite.executeWithoutResult(status -> statement.run());
+        assertEquals(2, primary.opened.get(), "read-write transaction on primary");
+
+        // Lecture dans une transaction d'écriture : elle suit la connexion déjà ouverte
+        readWrite.executeWithoutResult(status -> {
+            statement.run();
+            replicaReads.execute(() -> {
+                statement.run();
+                return null;
+            });
+        });
+        assertEquals(3, primary.opened.get(), "replica read inside read-write transaction");
+        assertEquals(1, replica.opened.get(), "replica read inside read-write transaction");
+    }
+
+    private static EntityManagerFactory entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Aucune entité : seul le chemin transactionnel de Hibernate est en jeu
+        factory.setPackagesToScan(ReadWriteRoutingDataSourceTest.class.getPackageName() + ".none");
+        factory.setJpaPropertyMap(Map.of(
+            "jakarta.persistence.database-product-name", "PostgreSQL",
+            "hibernate.boot.allow_jdbc_metadata_access", "false",
+            "hibernate.hbm2ddl.auto", "none"
+        ));
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    @Test
+    void transactionWithoutStatementOpensNoConnection() {
+        StandInDataSource primary = new StandInDataSource();
+        StandInDataSource replica = new StandInDataSource();
+        DataSource dataSource = DatabaseConfig.routingDataSource(primary, replica);
+
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> { });
+
+        assertEquals(0, primary.opened.get());
+        assertEquals(0, replica.opened.get());
+    }
+
+    /**
+     * DataSource minimale : connexions factices dont les requêtes ne font rien
+     */
+    private static final class StandInDataSource implements DataSource {
+        private final AtomicInteger opened = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() {
+            opened.incrementAndGet();
+            boolean[] state = { true, false, false }; // autoCommit, readOnly, closed
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getAutoCommit": return state[0];
+                    case "setAutoCommit": state[0] = (Boolean) args[0]; return null;
+                    case "isReadOnly": return state[1];
+                    case "setReadOnly": state[1] = (Boolean) args[0]; return null;
+                    case "close": state[2] = true; return null;
+                    case "isClosed": return state[2];
+                    case "getTransactionIsolation": return Connection.TRANSACTION_READ_COMMITTED;
+                    case "createStatement": return statement();
+                    case "getWarnings": return null;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+        }
+
+        private Statement statement() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "execute": return false;
+                    case "getWarnings": return null;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) {
+            return null;
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
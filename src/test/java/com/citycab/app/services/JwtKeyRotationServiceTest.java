@@ -0,0 +1,101 @@
+package com.citycab.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import com.citycab.app.config.CachingJwtDecoder;
+import com.citycab.app.config.JwtKeyRing;
+import com.citycab.app.config.JwtSigningProperties;
+
+class JwtKeyRotationServiceTest {
+
+    @Test
+    void rotatesFromConfiguredKeyMaterial() throws Exception {
+        Path dir = Files.createTempDirectory("jwt-keys");
+        dir.toFile().deleteOnExit();
+        KeyPair first = rsaKeyPair();
+        KeyPair second = rsaKeyPair();
+        write(dir, "k1", first);
+        write(dir, "k2", second);
+
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(SignatureAlgorithm.RS256);
+        useSigningKey(properties, dir, "k1");
+        JwtKeyRing keyRing = JwtKeyRing.load(properties);
+        JwtKeyRotationService service = new JwtKeyRotationService(keyRing, properties,
+            new CachingJwtDecoder(NimbusJwtDecoder.withJwkSource(keyRing.jwkSource()).build(), 100));
+
+        assertFalse(service.reloadIfChanged());
+
+        // Étape 1 : la prochaine clé est publiée en vérification, la clé active ne change pas
+        properties.setPreviousKeys(List.of(verificationKey(dir, "k2")));
+        assertTrue(service.reloadIfChanged());
+        assertEquals("k1", keyRing.signingKeyId());
+        assertNotNull(keyRing.publicKeys().getKeyByKeyId("k2"));
+
+        // Étape 2 : bascule, l'ancienne clé reste acceptée
+        useSigningKey(properties, dir, "k2");
+        properties.setPreviousKeys(List.of(verificationKey(dir, "k1")));
+        assertTrue(service.reloadIfChanged());
+        assertEquals("k2", keyRing.signingKeyId());
+        assertNotNull(keyRing.publicKeys().getKeyByKeyId("k1"));
+
+        // Clé introuvable : le trousseau en place est conservé
+        properties.setPreviousKeys(List.of());
+        properties.setPublicKeyPath(dir.resolve("missing.pem").toString());
+        assertFalse(service.reloadIfChanged());
+        assertNotNull(keyRing.publicKeys().getKeyByKeyId("k1"));
+
+        // Étape 3 : l'ancienne clé est retirée
+        useSigningKey(properties, dir, "k2");
+        assertTrue(service.reloadIfChanged());
+        assertNull(keyRing.publicKeys().getKeyByKeyId("k1"));
+    }
+
+    private static void useSigningKey(JwtSigningProperties properties, Path dir, String keyId) {
+        properties.setKeyId(keyId);
+        properties.setPrivateKeyPath(dir.resolve(keyId + "-private.pem").toString());
+        properties.setPublicKeyPath(dir.resolve(keyId + "-public.pem").toString());
+    }
+
+    private static JwtSigningProperties.VerificationKey verificationKey(Path dir, String keyId) {
+        JwtSigningProperties.VerificationKey key = new JwtSigningProperties.VerificationKey();
+        key.setKeyId(keyId);
+        key.setAlgorithm(SignatureAlgorithm.RS256);
+        key.setPublicKeyPath(dir.resolve(keyId + "-public.pem").toString());
+        return key;
+    }
+
+    private static void write(Path dir, String keyId, KeyPair keyPair) throws Exception {
+        Files.writeString(dir.resolve(keyId + "-private.pem"), pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Files.writeString(dir.resolve(keyId + "-public.pem"), pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        dir.resolve(keyId + "-private.pem").toFile().deleteOnExit();
+        dir.resolve(keyId + "-public.pem").toFile().deleteOnExit();
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+            + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(der)
+            + "\n-----END " + type + "-----\n";
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,277 @@
+package com.citycab.app.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.citycab.app.common.CsvRowReader;
+import com.citycab.app.config.AssignableRoles;
+import com.citycab.app.config.RoleCatalog;
+import com.citycab.app.dtos.ImportProgress;
+import com.citycab.app.dtos.ImportRowError;
+import com.citycab.app.entities.Role;
+import com.citycab.app.enums.ImportFormat;
+import com.citycab.app.repository.RoleRepository;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * Sans base : la connexion simule le COPY et l'INSERT ... ON CONFLICT DO NOTHING,
+ * qui renvoie les lignes dont l'email est déjà pris.
+ */
+class UserImportServiceTest {
+
+    @Test
+    void appendCsvKeepsNullApartFromEmptyString() {
+        StringBuilder csv = new StringBuilder();
+        UserImportService.appendCsv(csv, null);
+        UserImportService.appendCsv(csv, "");
+        UserImportService.appendCsv(csv, "O\"Neil");
+        UserImportService.appendCsv(csv, "12 rue Haute,\nBP 45");
+
+        // Champ vide non quoté = NULL pour COPY, "" = chaîne vide
+        assertEquals(",,\"\",\"O\"\"Neil\",\"12 rue Haute,\nBP 45\"", csv.toString());
+    }
+
+    @Test
+    void reportsRowsRejectedAsDuplicates() throws Exception {
+        FakeDatabase database = new FakeDatabase(Set.of("b@citycab.test"));
+        UserImportService service = service(database);
+        List<ImportRowError> errors = new ArrayList<>();
+        String input = String.join("\n",
+            "{\"email\":\"a@citycab.test\",\"password\":\"secret-1\",\"firstName\":\"\",\"lastName\":\"O\\\"Neil\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}",
+            "{\"email\":\"b@citycab.test\",\"password\":\"secret-2\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}",
+            "{\"email\":\"c@citycab.test\",\"password\":\"secret-3\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}");
+
+        ImportProgress summary = importJson(service, caller("ADMIN"), false, input, errors);
+
+        assertEquals(3, summary.getProcessed());
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertEquals(1, errors.size());
+        assertEquals(2, errors.get(0).getLine());
+        assertEquals("b@citycab.test", errors.get(0).getEmail());
+        assertEquals("Email or phone already registered", errors.get(0).getError());
+
+        // Un COPY par lot de deux lignes ; prénom vide quoté, téléphone et ville absents à NULL
+        assertEquals(2, database.copies.size());
+        String first = database.copies.get(0).split("\n")[0];
+        assertTrue(first.startsWith("1,\"USER"), first);
+        assertTrue(first.endsWith(",\"a@citycab.test\",,\"\",\"O\"\"Neil\",\"hash:secret-1\",\"DRIVER\",\"CM\",,\"DLA\","), first);
+        assertTrue(database.statements.stream().anyMatch(sql -> sql.startsWith("INSERT INTO user_roles")));
+    }
+
+    @Test
+    void rejectsRolesAndUserTypesAboveTheCaller() throws Exception {
+        FakeDatabase database = new FakeDatabase(Set.of());
+        UserImportService service = service(database);
+        List<ImportRowError> errors = new ArrayList<>();
+        String input = String.join("\n",
+            "{\"email\":\"a@citycab.test\",\"password\":\"secret-1\",\"roleCode\":\"DRIVER\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}",
+            "{\"email\":\"b@citycab.test\",\"password\":\"secret-2\",\"userType\":\"ROOTADMIN\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}",
+            "{\"email\":\"c@citycab.test\",\"password\":\"secret-3\",\"roleCode\":\"ROOTADMIN\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}",
+            "{\"email\":\"d@citycab.test\",\"password\":\"secret-4\",\"roleCode\":\"GHOST\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}");
+
+        ImportProgress summary = importJson(service, caller("ADMIN"), false, input, errors);
+
+        assertEquals(1, summary.getImported());
+        assertEquals(3, summary.getFailed());
+        assertEquals(List.of("userType: cannot assign ROOTADMIN", "roleCode: cannot assign ROOTADMIN", "Unknown role: GHOST"),
+            errors.stream().map(ImportRowError::getError).toList());
+        assertTrue(database.copies.get(0).endsWith(",\"ROL-DRIVER\"\n"), database.copies.get(0));
+    }
+
+    @Test
+    void preHashedPasswordsAreReservedToRootAdmin() {
+        UserImportService service = service(new FakeDatabase(Set.of()));
+        String input = "{\"email\":\"a@citycab.test\",\"password\":\"$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01\",\"countryCode\":\"CM\",\"cityId\":\"DLA\"}";
+
+        assertThrows(AccessDeniedException.class,
+            () -> importJson(service, caller("ADMIN"), true, input, new ArrayList<>()));
+    }
+
+    private static ImportProgress importJson(UserImportService service, AssignableRoles caller, boolean passwordsHashed,
+                                             String input, List<ImportRowError> errors) throws Exception {
+        try {
+            return service.importUsers(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                ImportFormat.JSON,
+                passwordsHashed,
+                caller,
+                new UserImportService.ImportListener() {
+                    @Override
+                    public void onRowError(ImportRowError error) {
+                        errors.add(error);
+                    }
+
+                    @Override
+                    public void onProgress(ImportProgress progress) {
+                    }
+                });
+        } finally {
+            service.destroy();
+        }
+    }
+
+    private static AssignableRoles caller(String... authorities) {
+        return AssignableRoles.of(new UsernamePasswordAuthenticationToken(
+            "caller", null, AuthorityUtils.createAuthorityList(authorities)));
+    }
+
+    private static RoleCatalog roleCatalog(String... codes) {
+        List<Role> roles = Stream.of(codes).map(code -> {
+            Role role = Role.builder().code(code).name(code).build();
+            role.setId("ROL-" + code);
+            return role;
+        }).toList();
+        RoleRepository repository = fake(RoleRepository.class, (proxy, method, args) ->
+            method.getName().equals("findAllWithPermissions") ? roles : defaultValue(method));
+        RoleCatalog catalog = new RoleCatalog(repository, null, 60_000);
+        catalog.refresh();
+        return catalog;
+    }
+
+    private static UserImportService service(FakeDatabase database) {
+        Validator validator = Validation.byDefaultProvider()
+            .configure()
+            .messageInterpolator(new ParameterMessageInterpolator())
+            .buildValidatorFactory()
+            .getValidator();
+        PasswordEncoder passwordEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+
+        return new UserImportService(new JdbcTemplate(database.dataSource()), roleCatalog("ROOTADMIN", "DRIVER"),
+            validator, passwordEncoder, transactionManager, 1, 2) {
+            @Override
+            void copyIn(Connection connection, String csv) {
+                database.copies.add(csv);
+            }
+        };
+    }
+
+    /**
+     * Connexion JDBC minimale : enregistre les requêtes et renvoie, pour l'INSERT dans users,
+     * les lignes du dernier COPY dont l'email est déjà enregistré
+     */
+    private static final class FakeDatabase {
+        private final Set<String> registeredEmails;
+        private final List<String> copies = new ArrayList<>();
+        private final List<String> statements = new ArrayList<>();
+
+        private FakeDatabase(Set<String> registeredEmails) {
+            this.registeredEmails = registeredEmails;
+        }
+
+        DataSource dataSource() {
+            Connection connection = fake(Connection.class, (proxy, method, args) ->
+                method.getName().equals("createStatement") ? statement() : defaultValue(method));
+            return fake(DataSource.class, (proxy, method, args) ->
+                method.getName().equals("getConnection") ? connection : defaultValue(method));
+        }
+
+        private Statement statement() {
+            return fake(Statement.class, (proxy, method, args) -> {
+                if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                    statements.add(sql);
+                    if (method.getName().equals("executeQuery")) {
+                        return rejectedRows();
+                    }
+                }
+                return defaultValue(method);
+            });
+        }
+
+        private ResultSet rejectedRows() throws Exception {
+            List<List<String>> rejected = new ArrayList<>();
+            CsvRowReader reader = new CsvRowReader(new StringReader(copies.get(copies.size() - 1)));
+            List<String> values;
+            while ((values = reader.next()) != null) {
+                if (registeredEmails.contains(values.get(2))) {
+                    rejected.add(values);
+                }
+            }
+
+            Iterator<List<String>> rows = rejected.iterator();
+            AtomicReference<List<String>> current = new AtomicReference<>();
+            return fake(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+                case "next" -> {
+                    current.set(rows.hasNext() ? rows.next() : null);
+                    yield current.get() != null;
+                }
+                case "getLong" -> Long.parseLong(current.get().get(0));
+                case "getString" -> current.get().get(2);
+                default -> defaultValue(method);
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return type == long.class ? 0L : null;
+    }
+}